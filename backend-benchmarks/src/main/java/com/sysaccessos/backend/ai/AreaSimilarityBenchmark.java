@@ -0,0 +1,77 @@
+package com.sysaccessos.backend.ai;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cálculo dos vizinhos de {@code AreaSimilarityRebuild} sobre uma matriz usuário × área em que
+ * cada usuário frequenta áreas de um mesmo bloco, com uma thread ({@code parallelism=1}) e com
+ * todos os núcleos ({@code 0}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AreaSimilarityBenchmark {
+
+    private static final int AREAS = 2000;
+    private static final int AREAS_PER_BLOCK = 40;
+
+    @Param({"10000", "200000"})
+    private int users;
+
+    @Param({"8"})
+    private int areasPerUser;
+
+    @Param({"1", "0"})
+    private int parallelism;
+
+    private AreaCoAccessMatrix matrix;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        long[] areaIds = new long[AREAS];
+        for (int i = 0; i < AREAS; i++) {
+            areaIds[i] = i + 1;
+        }
+        AreaCoAccessMatrix.Builder builder = new AreaCoAccessMatrix.Builder(areaIds, users * areasPerUser);
+        for (long userId = 1; userId <= users; userId++) {
+            int block = random.nextInt(AREAS / AREAS_PER_BLOCK) * AREAS_PER_BLOCK;
+            // Áreas em ordem crescente, como na chave primária de user_area_stats.
+            int area = block + random.nextInt(AREAS_PER_BLOCK / areasPerUser);
+            for (int i = 0; i < areasPerUser; i++) {
+                builder.add(userId, areaIds[area], 1 + random.nextInt(200));
+                area += 1 + random.nextInt(AREAS_PER_BLOCK / areasPerUser);
+            }
+        }
+        matrix = builder.build();
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Object neighbors() {
+        return matrix.neighbors(20, 2, pool);
+    }
+}
@@ -0,0 +1,63 @@
+package com.sysaccessos.backend.ai;
+
+import com.sysaccessos.backend.benchmark.Datasets;
+import com.sysaccessos.backend.history.AreaUsage;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Seleção das recomendações de {@code RecommendationService.select} (por frequência e por
+ * pontuação com decaimento) sobre os acessos do usuário já agregados por área.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecommendationRankingBenchmark {
+
+    private static final Duration HALF_LIFE = Duration.ofDays(30);
+
+    @Param({"50", "5000"})
+    private int areas;
+
+    private List<AreaUsage> usage;
+    private Instant now;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        usage = new ArrayList<>(areas);
+        for (long areaId = 1; areaId <= areas; areaId++) {
+            usage.add(new AreaUsage(areaId, "Área " + areaId, (long) random.nextInt(500),
+                Datasets.NOW.minusMinutes(random.nextInt(60 * 24 * 90)), random.nextDouble() * 50));
+        }
+        now = Datasets.NOW.toInstant();
+    }
+
+    @Benchmark
+    public Object rank() {
+        return RecommendationService.select(RecommendationMode.FREQUENCY, usage, now, HALF_LIFE);
+    }
+
+    @Benchmark
+    public Object rankByDecay() {
+        return RecommendationService.select(RecommendationMode.DECAY, usage, now, HALF_LIFE);
+    }
+}
@@ -0,0 +1,68 @@
+package com.sysaccessos.backend.area;
+
+import com.sysaccessos.backend.area.dto.AccessAreaDto;
+import com.sysaccessos.backend.benchmark.Datasets;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Status calculado de {@link AccessArea} e o mapeamento {@code AccessAreaService.toDto},
+ * executados para cada área na listagem e em cada movimentação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessAreaBenchmark {
+
+    @Param({"100", "10000"})
+    private int areas;
+
+    private List<AccessArea> areaList;
+    private AccessAreaService service;
+
+    @Setup
+    public void setUp() {
+        areaList = Datasets.areas(areas, new Random(42));
+        service = new AccessAreaService(null, null, null, null);
+    }
+
+    @Benchmark
+    public void status(Blackhole blackhole) {
+        for (AccessArea area : areaList) {
+            blackhole.consume(area.getStatus());
+        }
+    }
+
+    @Benchmark
+    public void usageDeadline(Blackhole blackhole) {
+        for (AccessArea area : areaList) {
+            OffsetDateTime deadline = area.getUsageDeadline();
+            blackhole.consume(deadline);
+        }
+    }
+
+    @Benchmark
+    public void toDto(Blackhole blackhole) {
+        for (AccessArea area : areaList) {
+            AccessAreaDto dto = service.toDto(area);
+            blackhole.consume(dto);
+        }
+    }
+}
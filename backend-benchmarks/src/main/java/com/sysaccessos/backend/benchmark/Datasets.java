@@ -0,0 +1,126 @@
+package com.sysaccessos.backend.benchmark;
+
+import com.sysaccessos.backend.area.AccessArea;
+import com.sysaccessos.backend.history.AccessHistory;
+import com.sysaccessos.backend.permission.UserPermission;
+import com.sysaccessos.backend.user.User;
+import com.sysaccessos.backend.user.UserRole;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gera massas de dados determinísticas (semente fixa) para os benchmarks.
+ */
+public final class Datasets {
+
+    public static final LocalDate TODAY = LocalDate.of(2024, 6, 3);
+    public static final OffsetDateTime NOW = OffsetDateTime.parse("2024-06-03T14:00:00Z");
+
+    private Datasets() {
+    }
+
+    public static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        UserRole[] roles = UserRole.values();
+        for (int i = 1; i <= count; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setName("Usuário " + i);
+            user.setEmail("usuario" + i + "@sysaccessos.local");
+            user.setRegistrationCode(String.format("%08d", i));
+            user.setRole(roles[i % roles.length]);
+            user.setCardIdentifier(String.valueOf(10_000_000L + i));
+            users.add(user);
+        }
+        return users;
+    }
+
+    public static List<AccessArea> areas(int count, Random random) {
+        List<AccessArea> areas = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            AccessArea area = new AccessArea();
+            area.setId((long) i);
+            area.setName("Sala " + i);
+            area.setDescription("Laboratório " + i);
+            area.setLocation("Bloco " + (char) ('A' + i % 6));
+            area.setSecurityLevel(i % 3 == 0 ? "ALTO" : "MEDIO");
+            area.setActive(i % 17 != 0);
+            if (random.nextInt(3) == 0) {
+                area.startUsage((long) i, "Usuário " + i, String.valueOf(10_000_000L + i));
+                area.setLastMovementAt(NOW.minusHours(random.nextInt(48)));
+            }
+            area.setCreatedAt(NOW.minusDays(365));
+            area.setUpdatedAt(NOW.minusDays(random.nextInt(30)));
+            areas.add(area);
+        }
+        return areas;
+    }
+
+    /**
+     * Cerca de {@code perUser} permissões por usuário, com vigências e status variados.
+     */
+    public static List<UserPermission> permissions(List<User> users, List<AccessArea> areas, int perUser, Random random) {
+        List<UserPermission> permissions = new ArrayList<>(users.size() * perUser);
+        long id = 1;
+        for (User user : users) {
+            for (int j = 0; j < perUser; j++) {
+                UserPermission permission = new UserPermission();
+                permission.setId(id++);
+                permission.setUser(user);
+                permission.setArea(areas.get(random.nextInt(areas.size())));
+                permission.setAccessLevel("PADRAO");
+                LocalDate from = TODAY.minusDays(random.nextInt(120));
+                permission.setValidFrom(from);
+                permission.setValidUntil(from.plusDays(random.nextInt(180)));
+                permission.setStatus(random.nextInt(10) == 0 ? "SUSPENSA" : "ATIVA");
+                permissions.add(permission);
+            }
+        }
+        return permissions;
+    }
+
+    public static List<AccessHistory> history(List<User> users, List<AccessArea> areas, int count, Random random) {
+        List<AccessHistory> history = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = users.get(random.nextInt(users.size()));
+            // Distribuição enviesada: poucas áreas concentram a maior parte dos acessos.
+            AccessArea area = areas.get((int) (areas.size() * Math.pow(random.nextDouble(), 3)));
+            AccessHistory record = new AccessHistory();
+            record.setId((long) i + 1);
+            record.setUser(user);
+            record.setArea(area);
+            record.setEventType(random.nextBoolean() ? "ENTRADA" : "SAIDA");
+            record.setResult(random.nextInt(8) == 0 ? "NEGADO" : "AUTORIZADO");
+            record.setCardIdentifier(user.getCardIdentifier());
+            record.setRecordedAt(NOW.minusMinutes(i));
+            history.add(record);
+        }
+        return history;
+    }
+
+    /**
+     * Implementação mínima de um repositório Spring Data: {@code findAll} e a consulta por
+     * especificação {@code findBy} devolvem a massa gerada, sem aplicar filtro nem limite.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T repository(Class<T> type, List<?> rows) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            if ((method.getName().equals("findAll") && (args == null || args.length == 0))
+                || method.getName().equals("findBy")) {
+                return rows;
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + "Stub";
+                };
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package com.sysaccessos.backend.history;
+
+import com.sysaccessos.backend.area.AccessArea;
+import com.sysaccessos.backend.benchmark.Datasets;
+import com.sysaccessos.backend.history.dto.AccessHistorySearchCriteria;
+import com.sysaccessos.backend.user.User;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mapeamento do histórico para DTO pela busca de {@code AccessHistoryService}, com o
+ * repositório simulado devolvendo uma página de {@code rows} registros.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessHistoryMappingBenchmark {
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private AccessHistorySearchCriteria criteria;
+    private AccessHistoryService service;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<User> users = Datasets.users(1000);
+        List<AccessArea> areas = Datasets.areas(200, random);
+        List<AccessHistory> history = Datasets.history(users, areas, rows, random);
+        criteria = new AccessHistorySearchCriteria();
+        service = new AccessHistoryService(Datasets.repository(AccessHistoryRepository.class, history),
+            null, null, null, null, null, null, rows, rows);
+    }
+
+    @Benchmark
+    public Object search() {
+        return service.search(criteria, null, rows);
+    }
+}
@@ -0,0 +1,116 @@
+package com.sysaccessos.backend.permission;
+
+import com.sysaccessos.backend.area.AccessArea;
+import com.sysaccessos.backend.benchmark.Datasets;
+import com.sysaccessos.backend.user.User;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decisão de permissão por passagem: o snapshot do dia contra a varredura da
+ * lista de permissões do par usuário × área, como fazia {@code hasActivePermission}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionEvaluationBenchmark {
+
+    private static final int LOOKUPS = 1 << 12;
+
+    @Param({"1000", "100000"})
+    private int users;
+
+    @Param({"4"})
+    private int permissionsPerUser;
+
+    private ActivePermissionSnapshot snapshot;
+    private List<List<UserPermission>> candidates;
+    private long[] userIds;
+    private long[] areaIds;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<User> userList = Datasets.users(users);
+        List<AccessArea> areaList = Datasets.areas(200, random);
+        List<UserPermission> permissions = Datasets.permissions(userList, areaList, permissionsPerUser, random);
+
+        PermissionDecisionIndex index = new PermissionDecisionIndex(
+            Datasets.repository(UserPermissionRepository.class, permissions));
+        index.reload();
+        Clock clock = Clock.fixed(Datasets.TODAY.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        snapshot = new ActivePermissionSnapshot(index, clock);
+
+        Map<String, List<UserPermission>> permissionsByPair = new HashMap<>();
+        for (UserPermission permission : permissions) {
+            permissionsByPair.computeIfAbsent(key(permission.getUser().getId(), permission.getArea().getId()),
+                key -> new ArrayList<>()).add(permission);
+        }
+
+        userIds = new long[LOOKUPS];
+        areaIds = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (i % 2 == 0) {
+                UserPermission permission = permissions.get(random.nextInt(permissions.size()));
+                userIds[i] = permission.getUser().getId();
+                areaIds[i] = permission.getArea().getId();
+            } else {
+                userIds[i] = 1 + random.nextInt(users);
+                areaIds[i] = 1 + random.nextInt(areaList.size());
+            }
+        }
+        // O resultado da consulta ao banco é pré-resolvido: mede-se só a avaliação em memória.
+        candidates = new ArrayList<>(LOOKUPS);
+        for (int i = 0; i < LOOKUPS; i++) {
+            candidates.add(permissionsByPair.getOrDefault(key(userIds[i], areaIds[i]), List.of()));
+        }
+    }
+
+    @Benchmark
+    public boolean snapshotLookup() {
+        int i = next();
+        return snapshot.isActive(userIds[i], areaIds[i]);
+    }
+
+    @Benchmark
+    public boolean listScan() {
+        int i = next();
+        LocalDate today = Datasets.TODAY;
+        return candidates.get(i).stream().anyMatch(permission ->
+            !permission.getValidFrom().isAfter(today)
+                && !permission.getValidUntil().isBefore(today)
+                && "ATIVA".equalsIgnoreCase(permission.getStatus())
+        );
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (LOOKUPS - 1);
+        return cursor;
+    }
+
+    private static String key(long userId, long areaId) {
+        return userId + ":" + areaId;
+    }
+}
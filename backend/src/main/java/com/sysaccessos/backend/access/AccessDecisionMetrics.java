@@ -0,0 +1,47 @@
+package com.sysaccessos.backend.access;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Contadores das decisões de acesso por operação, resultado e motivo da recusa.
+ */
+@Component
+public class AccessDecisionMetrics {
+
+    public static final String SIMULATE = "simulate";
+    public static final String MOVE = "move";
+
+    public static final String UNKNOWN_CARD = "CARTAO_NAO_IDENTIFICADO";
+    public static final String UNKNOWN_AREA = "AREA_INEXISTENTE";
+    public static final String INACTIVE_AREA = "AREA_INATIVA";
+    public static final String NO_PERMISSION = "SEM_PERMISSAO";
+    public static final String AREA_OCCUPIED = "SALA_OCUPADA";
+    public static final String CONCURRENT_UPDATE = "CONFLITO_CONCORRENTE";
+
+    private static final String METRIC = "sysaccessos.access.decisions";
+
+    private final MeterRegistry registry;
+
+    public AccessDecisionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void authorized(String operation) {
+        counter(operation, "AUTORIZADO", "NENHUM").increment();
+    }
+
+    public void denied(String operation, String reason) {
+        counter(operation, "NEGADO", reason).increment();
+    }
+
+    private Counter counter(String operation, String result, String reason) {
+        return Counter.builder(METRIC)
+            .description("Decisões de acesso por resultado e motivo")
+            .tag("operation", operation)
+            .tag("result", result)
+            .tag("reason", reason)
+            .register(registry);
+    }
+}
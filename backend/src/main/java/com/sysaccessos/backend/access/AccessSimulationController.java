@@ -1,8 +1,10 @@
 package com.sysaccessos.backend.access;
 
+import com.sysaccessos.backend.access.dto.AccessSimulationBatchRequest;
 import com.sysaccessos.backend.access.dto.AccessSimulationRequest;
 import com.sysaccessos.backend.access.dto.AccessSimulationResponse;
 import jakarta.validation.Valid;
+import java.util.List;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -26,4 +28,11 @@ public class AccessSimulationController {
         AccessSimulationResponse response = simulationService.simulate(request);
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/simulate/batch")
+    public ResponseEntity<List<AccessSimulationResponse>> simulateBatch(
+        @Valid @RequestBody AccessSimulationBatchRequest request) {
+        List<AccessSimulationResponse> responses = simulationService.simulateBatch(request.getRequests());
+        return ResponseEntity.ok(responses);
+    }
 }
@@ -4,14 +4,19 @@ import com.sysaccessos.backend.access.dto.AccessSimulationRequest;
 import com.sysaccessos.backend.access.dto.AccessSimulationResponse;
 import com.sysaccessos.backend.area.AccessArea;
 import com.sysaccessos.backend.area.AccessAreaRepository;
-import com.sysaccessos.backend.history.AccessHistory;
-import com.sysaccessos.backend.history.AccessHistoryRepository;
-import com.sysaccessos.backend.permission.UserPermission;
-import com.sysaccessos.backend.permission.UserPermissionRepository;
-import com.sysaccessos.backend.user.User;
-import com.sysaccessos.backend.user.UserRepository;
-import java.time.LocalDate;
+import com.sysaccessos.backend.history.AccessHistoryEvent;
+import com.sysaccessos.backend.history.AccessHistoryWriter;
+import com.sysaccessos.backend.permission.ActivePermissionSnapshot;
+import com.sysaccessos.backend.user.CardHolder;
+import com.sysaccessos.backend.user.CardHolderCache;
+import io.micrometer.core.annotation.Timed;
+import java.time.Clock;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,57 +25,115 @@ import org.springframework.web.server.ResponseStatusException;
 @Service
 public class AccessSimulationService {
 
-    private final UserRepository userRepository;
+    private final CardHolderCache cardHolderCache;
     private final AccessAreaRepository areaRepository;
-    private final UserPermissionRepository permissionRepository;
-    private final AccessHistoryRepository historyRepository;
+    private final ActivePermissionSnapshot activePermissions;
+    private final AccessHistoryWriter historyWriter;
+    private final AccessDecisionMetrics decisionMetrics;
+    private final Clock clock;
 
-    public AccessSimulationService(UserRepository userRepository, AccessAreaRepository areaRepository,
-                                   UserPermissionRepository permissionRepository, AccessHistoryRepository historyRepository) {
-        this.userRepository = userRepository;
+    public AccessSimulationService(CardHolderCache cardHolderCache, AccessAreaRepository areaRepository,
+                                   ActivePermissionSnapshot activePermissions, AccessHistoryWriter historyWriter,
+                                   AccessDecisionMetrics decisionMetrics, Clock clock) {
+        this.cardHolderCache = cardHolderCache;
         this.areaRepository = areaRepository;
-        this.permissionRepository = permissionRepository;
-        this.historyRepository = historyRepository;
+        this.activePermissions = activePermissions;
+        this.historyWriter = historyWriter;
+        this.decisionMetrics = decisionMetrics;
+        this.clock = clock;
     }
 
     @Transactional
+    @Timed(value = "sysaccessos.access.decision", extraTags = {"operation", "simulate"}, histogram = true)
     public AccessSimulationResponse simulate(AccessSimulationRequest request) {
-        AccessArea area = areaRepository.findById(request.getAreaId())
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Área informada não existe."));
+        AccessArea area = areaRepository.findById(request.getAreaId()).orElse(null);
+        if (area == null) {
+            decisionMetrics.denied(AccessDecisionMetrics.SIMULATE, AccessDecisionMetrics.UNKNOWN_AREA);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Área informada não existe.");
+        }
+
+        CardHolder user = cardHolderCache.resolve(request.getCardIdentifier()).orElse(null);
+
+        AccessSimulationResponse response = evaluate(request, area, user);
+        if (user != null) {
+            historyWriter.enqueue(toEvent(request, area, user, response));
+        }
+        return response;
+    }
+
+    /**
+     * Avalia passagens acumuladas pelos controladores de porta. Áreas e cartões são
+     * resolvidos em conjunto e o histórico é gravado em um único lote.
+     */
+    @Timed(value = "sysaccessos.access.decision", extraTags = {"operation", "simulate-batch"}, histogram = true)
+    public List<AccessSimulationResponse> simulateBatch(List<AccessSimulationRequest> requests) {
+        Set<Long> areaIds = requests.stream()
+            .map(AccessSimulationRequest::getAreaId)
+            .collect(Collectors.toSet());
+        Map<Long, AccessArea> areas = areaRepository.findAllById(areaIds).stream()
+            .collect(Collectors.toMap(AccessArea::getId, Function.identity()));
 
-        User user = userRepository.findByCardIdentifier(request.getCardIdentifier()).orElse(null);
+        Set<String> cardIdentifiers = requests.stream()
+            .map(AccessSimulationRequest::getCardIdentifier)
+            .collect(Collectors.toSet());
+        Map<String, CardHolder> holders = cardHolderCache.resolveAll(cardIdentifiers);
 
+        List<AccessSimulationResponse> responses = new ArrayList<>(requests.size());
+        List<AccessHistoryEvent> events = new ArrayList<>();
+        for (AccessSimulationRequest request : requests) {
+            AccessArea area = areas.get(request.getAreaId());
+            if (area == null) {
+                decisionMetrics.denied(AccessDecisionMetrics.SIMULATE, AccessDecisionMetrics.UNKNOWN_AREA);
+                responses.add(new AccessSimulationResponse(false, "NEGADO", "Área informada não existe.", null, null,
+                    request.getCardIdentifier(), null));
+                continue;
+            }
+            CardHolder user = holders.get(request.getCardIdentifier());
+            AccessSimulationResponse response = evaluate(request, area, user);
+            if (user != null) {
+                events.add(toEvent(request, area, user, response));
+            }
+            responses.add(response);
+        }
+
+        historyWriter.writeBatch(events);
+        return responses;
+    }
+
+    private AccessSimulationResponse evaluate(AccessSimulationRequest request, AccessArea area, CardHolder user) {
         if (user == null) {
+            decisionMetrics.denied(AccessDecisionMetrics.SIMULATE, AccessDecisionMetrics.UNKNOWN_CARD);
             return new AccessSimulationResponse(false, "NEGADO", "Cartão não identificado.", null, null,
                 request.getCardIdentifier(), area.getName());
         }
 
-        boolean authorized = hasActivePermission(user.getId(), area.getId());
+        boolean authorized = activePermissions.isActive(user.id(), area.getId());
+        if (authorized) {
+            decisionMetrics.authorized(AccessDecisionMetrics.SIMULATE);
+        } else {
+            decisionMetrics.denied(AccessDecisionMetrics.SIMULATE, AccessDecisionMetrics.NO_PERMISSION);
+        }
         String result = authorized ? "AUTORIZADO" : "NEGADO";
         String message = authorized
             ? "Acesso autorizado para a área selecionada."
             : "Permissão não encontrada ou fora da vigência.";
 
-        AccessHistory history = new AccessHistory();
-        history.setUser(user);
-        history.setArea(area);
-        history.setEventType(request.getEventType() == null ? "ENTRADA" : request.getEventType());
-        history.setResult(result);
-        history.setCardIdentifier(request.getCardIdentifier());
-        history.setNotes(request.getNotes());
-        historyRepository.save(history);
-
-        return new AccessSimulationResponse(authorized, result, message, user.getName(), user.getId(),
+        return new AccessSimulationResponse(authorized, result, message, user.name(), user.id(),
             request.getCardIdentifier(), area.getName());
     }
 
-    private boolean hasActivePermission(Long userId, Long areaId) {
-        LocalDate today = LocalDate.now();
-        List<UserPermission> permissions = permissionRepository.findByUserIdAndAreaId(userId, areaId);
-        return permissions.stream().anyMatch(permission ->
-            !permission.getValidFrom().isAfter(today)
-                && !permission.getValidUntil().isBefore(today)
-                && "ATIVA".equalsIgnoreCase(permission.getStatus())
+    private AccessHistoryEvent toEvent(AccessSimulationRequest request, AccessArea area, CardHolder user,
+                                       AccessSimulationResponse response) {
+        return AccessHistoryEvent.of(
+            clock,
+            user.id(),
+            user.name(),
+            area.getId(),
+            area.getName(),
+            request.getEventType() == null ? "ENTRADA" : request.getEventType(),
+            response.getResult(),
+            request.getCardIdentifier(),
+            request.getNotes()
         );
     }
 }
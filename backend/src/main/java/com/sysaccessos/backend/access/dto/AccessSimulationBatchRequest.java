@@ -0,0 +1,21 @@
+package com.sysaccessos.backend.access.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class AccessSimulationBatchRequest {
+
+    @NotEmpty(message = "Informe ao menos uma passagem.")
+    @Size(max = 500, message = "O lote deve ter no máximo 500 passagens.")
+    private List<@Valid AccessSimulationRequest> requests;
+
+    public List<AccessSimulationRequest> getRequests() {
+        return requests;
+    }
+
+    public void setRequests(List<AccessSimulationRequest> requests) {
+        this.requests = requests;
+    }
+}
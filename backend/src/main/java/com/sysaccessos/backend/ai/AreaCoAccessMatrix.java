@@ -0,0 +1,205 @@
+package com.sysaccessos.backend.ai;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Matriz esparsa usuário × área com o peso {@code 1 + ln(acessos)} de cada par, guardada só em
+ * vetores primitivos: por linhas (áreas de cada usuário) e, transposta, por colunas (usuários
+ * de cada área). Os usuários não têm identificador aqui, só a posição da linha; as áreas usam
+ * o índice denso de {@link #areaIds()}.
+ */
+final class AreaCoAccessMatrix {
+
+    // Áreas por tarefa folha; abaixo disso dividir não compensa o custo do fork.
+    private static final int AREAS_PER_TASK = 16;
+
+    private final long[] areaIds;
+    private final int users;
+    private final int[] userOffsets;
+    private final int[] userAreas;
+    private final float[] userWeights;
+    private final int[] areaOffsets;
+    private final int[] areaUsers;
+    private final float[] areaWeights;
+    private final double[] norms;
+
+    private AreaCoAccessMatrix(long[] areaIds, int users, int[] userOffsets, int[] userAreas, float[] userWeights) {
+        this.areaIds = areaIds;
+        this.users = users;
+        this.userOffsets = userOffsets;
+        this.userAreas = userAreas;
+        this.userWeights = userWeights;
+
+        int entries = userOffsets[users];
+        areaOffsets = new int[areaIds.length + 1];
+        for (int i = 0; i < entries; i++) {
+            areaOffsets[userAreas[i] + 1]++;
+        }
+        for (int area = 0; area < areaIds.length; area++) {
+            areaOffsets[area + 1] += areaOffsets[area];
+        }
+        areaUsers = new int[entries];
+        areaWeights = new float[entries];
+        norms = new double[areaIds.length];
+        int[] next = Arrays.copyOf(areaOffsets, areaIds.length);
+        for (int user = 0; user < users; user++) {
+            for (int i = userOffsets[user]; i < userOffsets[user + 1]; i++) {
+                int area = userAreas[i];
+                int position = next[area]++;
+                areaUsers[position] = user;
+                areaWeights[position] = userWeights[i];
+                norms[area] += (double) userWeights[i] * userWeights[i];
+            }
+        }
+        for (int area = 0; area < norms.length; area++) {
+            norms[area] = Math.sqrt(norms[area]);
+        }
+    }
+
+    static float weight(long accessCount) {
+        return (float) (1 + Math.log(Math.max(accessCount, 1)));
+    }
+
+    long[] areaIds() {
+        return areaIds;
+    }
+
+    int users() {
+        return users;
+    }
+
+    int entries() {
+        return userOffsets[users];
+    }
+
+    /**
+     * Similaridade do cosseno entre todas as áreas, guardando até {@code limit} vizinhos por área
+     * com pelo menos {@code minCommonUsers} usuários em comum. As áreas são divididas em faixas
+     * processadas em paralelo no {@code pool}; cada faixa só escreve os vizinhos das suas áreas.
+     */
+    AreaNeighbors neighbors(int limit, int minCommonUsers, ForkJoinPool pool) {
+        AreaNeighbors result = new AreaNeighbors(areaIds.length, limit);
+        pool.invoke(new NeighborTask(this, 0, areaIds.length, result, minCommonUsers));
+        return result;
+    }
+
+    /**
+     * Produto escalar da área com cada área que compartilha usuários, percorrendo os usuários da
+     * coluna e, para cada um, a sua linha. {@code dot}/{@code common} voltam zerados.
+     */
+    private void neighborsOf(int area, AreaNeighbors result, int minCommonUsers,
+                             double[] dot, int[] common, int[] touched) {
+        int touchedCount = 0;
+        for (int k = areaOffsets[area]; k < areaOffsets[area + 1]; k++) {
+            int user = areaUsers[k];
+            double weight = areaWeights[k];
+            for (int i = userOffsets[user]; i < userOffsets[user + 1]; i++) {
+                int other = userAreas[i];
+                if (other == area) {
+                    continue;
+                }
+                if (common[other] == 0) {
+                    touched[touchedCount++] = other;
+                }
+                common[other]++;
+                dot[other] += weight * userWeights[i];
+            }
+        }
+        for (int t = 0; t < touchedCount; t++) {
+            int other = touched[t];
+            if (common[other] >= minCommonUsers) {
+                result.offer(area, other, (float) (dot[other] / (norms[area] * norms[other])), common[other]);
+            }
+            dot[other] = 0;
+            common[other] = 0;
+        }
+    }
+
+    // Aninhada estática: a tarefa não carrega referência implícita à matriz, só a explícita.
+    private static final class NeighborTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient AreaCoAccessMatrix matrix;
+        private final int from;
+        private final int to;
+        private final transient AreaNeighbors result;
+        private final int minCommonUsers;
+
+        NeighborTask(AreaCoAccessMatrix matrix, int from, int to, AreaNeighbors result, int minCommonUsers) {
+            this.matrix = matrix;
+            this.from = from;
+            this.to = to;
+            this.result = result;
+            this.minCommonUsers = minCommonUsers;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > AREAS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new NeighborTask(matrix, from, middle, result, minCommonUsers),
+                    new NeighborTask(matrix, middle, to, result, minCommonUsers));
+                return;
+            }
+            int areas = matrix.areaIds.length;
+            double[] dot = new double[areas];
+            int[] common = new int[areas];
+            int[] touched = new int[areas];
+            for (int area = from; area < to; area++) {
+                matrix.neighborsOf(area, result, minCommonUsers, dot, common, touched);
+            }
+        }
+    }
+
+    /**
+     * Monta a matriz a partir de pares (usuário, área) agrupados por usuário, como vêm de
+     * {@code user_area_stats} ordenada pela chave primária. Pares de áreas fora de
+     * {@code areaIds} (ordenado) são ignorados.
+     */
+    static final class Builder {
+
+        private final long[] areaIds;
+        private int[] userOffsets;
+        private int[] userAreas;
+        private float[] userWeights;
+        private int users;
+        private int entries;
+        private long currentUser;
+
+        Builder(long[] areaIds, int expectedEntries) {
+            this.areaIds = areaIds;
+            this.userOffsets = new int[1024];
+            this.userAreas = new int[Math.max(expectedEntries, 16)];
+            this.userWeights = new float[userAreas.length];
+        }
+
+        void add(long userId, long areaId, long accessCount) {
+            int area = Arrays.binarySearch(areaIds, areaId);
+            if (area < 0) {
+                return;
+            }
+            if (users == 0 || userId != currentUser) {
+                if (users + 1 == userOffsets.length) {
+                    userOffsets = Arrays.copyOf(userOffsets, userOffsets.length * 2);
+                }
+                users++;
+                currentUser = userId;
+            }
+            if (entries == userAreas.length) {
+                userAreas = Arrays.copyOf(userAreas, entries * 2);
+                userWeights = Arrays.copyOf(userWeights, entries * 2);
+            }
+            userAreas[entries] = area;
+            userWeights[entries] = weight(accessCount);
+            entries++;
+            userOffsets[users] = entries;
+        }
+
+        AreaCoAccessMatrix build() {
+            return new AreaCoAccessMatrix(areaIds, users, Arrays.copyOf(userOffsets, users + 1), userAreas, userWeights);
+        }
+    }
+}
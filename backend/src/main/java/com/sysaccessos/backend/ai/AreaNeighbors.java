@@ -0,0 +1,72 @@
+package com.sysaccessos.backend.ai;
+
+/**
+ * Vizinhos mais parecidos de cada área, em vetores planos: as posições
+ * {@code area * limit} a {@code area * limit + count(area) - 1} guardam os vizinhos da área
+ * (índices densos do {@link AreaCoAccessMatrix}), da maior para a menor similaridade.
+ */
+final class AreaNeighbors {
+
+    private final int limit;
+    private final int[] counts;
+    private final int[] neighbors;
+    private final float[] similarities;
+    private final int[] commonUsers;
+
+    AreaNeighbors(int areas, int limit) {
+        this.limit = limit;
+        this.counts = new int[areas];
+        this.neighbors = new int[areas * limit];
+        this.similarities = new float[areas * limit];
+        this.commonUsers = new int[areas * limit];
+    }
+
+    int count(int area) {
+        return counts[area];
+    }
+
+    int neighbor(int area, int rank) {
+        return neighbors[area * limit + rank];
+    }
+
+    float similarity(int area, int rank) {
+        return similarities[area * limit + rank];
+    }
+
+    int commonUsers(int area, int rank) {
+        return commonUsers[area * limit + rank];
+    }
+
+    int total() {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Insere o vizinho mantendo a ordem decrescente; abaixo do último com a lista cheia, é ignorado.
+     * Cada área é escrita por uma única tarefa.
+     */
+    void offer(int area, int neighbor, float similarity, int common) {
+        int base = area * limit;
+        int count = counts[area];
+        if (count == limit && similarity <= similarities[base + count - 1]) {
+            return;
+        }
+        int position = count == limit ? count - 1 : count;
+        while (position > 0 && similarities[base + position - 1] < similarity) {
+            neighbors[base + position] = neighbors[base + position - 1];
+            similarities[base + position] = similarities[base + position - 1];
+            commonUsers[base + position] = commonUsers[base + position - 1];
+            position--;
+        }
+        neighbors[base + position] = neighbor;
+        similarities[base + position] = similarity;
+        commonUsers[base + position] = common;
+        if (count < limit) {
+            counts[area] = count + 1;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.sysaccessos.backend.ai;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Vizinhos de cada área na tabela {@code area_similarities} (migração V8): trocados por inteiro
+ * a cada recálculo, numa transação, e lidos pela chave primária na recomendação.
+ */
+@Component
+public class AreaSimilarities {
+
+    private static final String INSERT_SQL = "INSERT INTO area_similarities "
+        + "(area_id, neighbor_area_id, similarity, common_users, computed_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RecommendationCache recommendationCache;
+
+    public AreaSimilarities(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            RecommendationCache recommendationCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recommendationCache = recommendationCache;
+    }
+
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("SELECT 1 FROM area_similarities LIMIT 1").isEmpty();
+    }
+
+    /**
+     * Vizinhos guardados para as áreas informadas, da maior para a menor similaridade em cada área.
+     */
+    public List<AreaSimilarity> neighborsOf(Collection<Long> areaIds) {
+        if (areaIds.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(areaIds.size(), "?"));
+        return jdbcTemplate.query("SELECT area_id, neighbor_area_id, similarity, common_users "
+                + "FROM area_similarities WHERE area_id IN (" + placeholders + ") "
+                + "ORDER BY area_id, similarity DESC",
+            (resultSet, rowNum) -> new AreaSimilarity(
+                resultSet.getLong("area_id"),
+                resultSet.getLong("neighbor_area_id"),
+                resultSet.getDouble("similarity"),
+                resultSet.getInt("common_users")
+            ), areaIds.toArray());
+    }
+
+    void replaceAll(long[] areaIds, AreaNeighbors neighbors, Instant computedAt) {
+        Timestamp computed = Timestamp.from(computedAt);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM area_similarities");
+            List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+            for (int area = 0; area < areaIds.length; area++) {
+                for (int rank = 0; rank < neighbors.count(area); rank++) {
+                    batch.add(new Object[] {areaIds[area], areaIds[neighbors.neighbor(area, rank)],
+                        (double) neighbors.similarity(area, rank), neighbors.commonUsers(area, rank), computed});
+                    if (batch.size() == INSERT_BATCH_SIZE) {
+                        jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+            }
+        });
+        recommendationCache.invalidateAll();
+    }
+
+    public record AreaSimilarity(long areaId, long neighborAreaId, double similarity, int commonUsers) {
+    }
+}
@@ -0,0 +1,129 @@
+package com.sysaccessos.backend.ai;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recalcula {@link AreaSimilarities} a partir de {@code user_area_stats}, que já é o histórico
+ * agregado por (usuário, área): monta o {@link AreaCoAccessMatrix} lendo a tabela em streaming
+ * e calcula os vizinhos num {@link ForkJoinPool} próprio, para não ocupar o pool comum.
+ * Roda de madrugada, na primeira inicialização com acessos e sem vizinhos, ou sob demanda.
+ */
+@Component
+public class AreaSimilarityRebuild {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AreaSimilarityRebuild.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AreaSimilarities similarities;
+    private final Clock clock;
+    private final int neighbors;
+    private final int minCommonUsers;
+    private final int parallelism;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public AreaSimilarityRebuild(JdbcTemplate jdbcTemplate, AreaSimilarities similarities, Clock clock,
+                                 @Value("${sysaccessos.recommendations.similarity.neighbors:20}") int neighbors,
+                                 @Value("${sysaccessos.recommendations.similarity.min-common-users:2}") int minCommonUsers,
+                                 @Value("${sysaccessos.recommendations.similarity.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.similarities = similarities;
+        this.clock = clock;
+        this.neighbors = neighbors;
+        this.minCommonUsers = Math.max(minCommonUsers, 1);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        boolean hasStats = !jdbcTemplate.queryForList("SELECT 1 FROM user_area_stats LIMIT 1").isEmpty();
+        if (hasStats && similarities.isEmpty()) {
+            start();
+        }
+    }
+
+    @Scheduled(cron = "${sysaccessos.recommendations.similarity.cron:0 30 4 * * *}")
+    public void rebuildNightly() {
+        if (running.compareAndSet(false, true)) {
+            try {
+                rebuild();
+            } catch (RuntimeException ex) {
+                LOGGER.error("Falha no cálculo da similaridade entre áreas.", ex);
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+
+    /**
+     * Inicia o recálculo em segundo plano. Retorna {@code false} se já houver um em andamento.
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException ex) {
+                LOGGER.error("Falha no cálculo da similaridade entre áreas.", ex);
+            } finally {
+                running.set(false);
+            }
+        }, "area-similarity-rebuild");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private void rebuild() {
+        long started = System.nanoTime();
+        Instant computedAt = clock.instant();
+        AreaCoAccessMatrix matrix = loadMatrix();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        AreaNeighbors result;
+        try {
+            result = matrix.neighbors(neighbors, minCommonUsers, pool);
+        } finally {
+            pool.shutdown();
+        }
+        similarities.replaceAll(matrix.areaIds(), result, computedAt);
+        LOGGER.info("Similaridade entre áreas calculada: {} área(s), {} usuário(s), {} par(es) de acesso, "
+                + "{} vizinho(s) em {} ms.", matrix.areaIds().length, matrix.users(), matrix.entries(),
+            result.total(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private AreaCoAccessMatrix loadMatrix() {
+        long[] areaIds = jdbcTemplate.queryForList("SELECT id FROM access_areas ORDER BY id", Long.class)
+            .stream()
+            .mapToLong(Long::longValue)
+            .toArray();
+        Integer expected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_area_stats", Integer.class);
+        AreaCoAccessMatrix.Builder builder = new AreaCoAccessMatrix.Builder(areaIds, expected == null ? 0 : expected);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                "SELECT user_id, area_id, access_count FROM user_area_stats ORDER BY user_id, area_id",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Integer.MIN_VALUE faz o Connector/J entregar as linhas uma a uma, sem carregar o resultado.
+            statement.setFetchSize(Integer.MIN_VALUE);
+            return statement;
+        }, (ResultSet resultSet) -> builder.add(resultSet.getLong(1), resultSet.getLong(2), resultSet.getLong(3)));
+        return builder.build();
+    }
+}
@@ -0,0 +1,137 @@
+package com.sysaccessos.backend.ai;
+
+import com.sysaccessos.backend.ai.dto.RecommendationJobRunDto;
+import com.sysaccessos.backend.history.AreaUsage;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Recomendações pré-calculadas ({@code user_recommendations}) e as execuções que as geraram
+ * ({@code recommendation_job_runs}), da migração V9. Só valem listas de execuções concluídas, e
+ * só enquanto nenhuma estatística do usuário for gravada a partir da marca da execução
+ * ({@code updated_at}, migração V11); depois disso a leitura a ignora.
+ */
+@Component
+public class PrecomputedRecommendations {
+
+    static final String RUNNING = "EM_ANDAMENTO";
+    static final String COMPLETED = "CONCLUIDA";
+    static final String FAILED = "FALHOU";
+
+    private static final String FIND_SQL = "SELECT r.area_id, a.name, r.access_count, r.last_access_at, r.decay_score "
+        + "FROM user_recommendations r "
+        + "JOIN recommendation_job_runs j ON j.id = r.run_id "
+        + "JOIN access_areas a ON a.id = r.area_id "
+        + "WHERE r.user_id = ? AND r.mode = ? AND j.status = ? AND NOT EXISTS ("
+        + "SELECT 1 FROM user_area_stats s WHERE s.user_id = r.user_id AND s.updated_at >= j.activity_watermark) "
+        + "ORDER BY r.ranking";
+
+    private static final String INSERT_SQL = "INSERT INTO user_recommendations "
+        + "(user_id, mode, ranking, area_id, access_count, last_access_at, decay_score, run_id) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public PrecomputedRecommendations(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Lista pré-calculada e ainda válida do usuário; vazio se ele é novo desde a última execução
+     * concluída ou teve acessos gravados depois do início dela.
+     */
+    public Optional<List<AreaUsage>> find(long userId, RecommendationMode mode) {
+        List<AreaUsage> areas = jdbcTemplate.query(FIND_SQL,
+            (resultSet, rowNum) -> new AreaUsage(
+                resultSet.getLong("area_id"),
+                resultSet.getString("name"),
+                resultSet.getLong("access_count"),
+                resultSet.getTimestamp("last_access_at").toInstant().atZone(ZoneId.systemDefault()).toOffsetDateTime(),
+                resultSet.getDouble("decay_score")
+            ), userId, mode.name(), COMPLETED);
+        return areas.isEmpty() ? Optional.empty() : Optional.of(areas);
+    }
+
+    /**
+     * Troca, numa transação, as listas dos usuários de {@code fromUser} a {@code toUser} pelas da execução.
+     */
+    void replaceUsers(long runId, long fromUser, long toUser, List<Row> rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM user_recommendations WHERE user_id BETWEEN ? AND ?", fromUser, toUser);
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (statement, row) -> {
+                statement.setLong(1, row.userId());
+                statement.setString(2, row.mode().name());
+                statement.setInt(3, row.ranking());
+                statement.setLong(4, row.usage().areaId());
+                statement.setLong(5, row.usage().accessCount());
+                statement.setTimestamp(6, Timestamp.from(row.usage().lastAccessAt().toInstant()));
+                statement.setDouble(7, row.usage().decayScore());
+                statement.setLong(8, runId);
+            });
+        });
+    }
+
+    long startRun(Instant startedAt, Instant activityWatermark) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement("INSERT INTO recommendation_job_runs "
+                + "(started_at, activity_watermark, status) VALUES (?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+            statement.setTimestamp(1, Timestamp.from(startedAt));
+            statement.setTimestamp(2, Timestamp.from(activityWatermark));
+            statement.setString(3, RUNNING);
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    void finishRun(long runId, String status, Instant finishedAt, long usersProcessed, long rowsWritten,
+                   long durationMs, String errorMessage) {
+        Double usersPerSecond = durationMs > 0 ? usersProcessed * 1000.0 / durationMs : null;
+        jdbcTemplate.update("UPDATE recommendation_job_runs SET status = ?, finished_at = ?, users_processed = ?, "
+                + "rows_written = ?, duration_ms = ?, users_per_second = ?, error_message = ? WHERE id = ?",
+            status, Timestamp.from(finishedAt), usersProcessed, rowsWritten, durationMs, usersPerSecond,
+            errorMessage == null ? null : errorMessage.substring(0, Math.min(errorMessage.length(), 500)), runId);
+    }
+
+    boolean hasCompletedRun() {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM recommendation_job_runs WHERE status = ? LIMIT 1", COMPLETED)
+            .isEmpty();
+    }
+
+    public List<RecommendationJobRunDto> runs(int limit) {
+        return jdbcTemplate.query("SELECT id, started_at, finished_at, status, users_processed, rows_written, "
+                + "duration_ms, users_per_second, error_message FROM recommendation_job_runs ORDER BY id DESC LIMIT ?",
+            (resultSet, rowNum) -> {
+                RecommendationJobRunDto dto = new RecommendationJobRunDto();
+                dto.setId(resultSet.getLong("id"));
+                dto.setStartedAt(resultSet.getTimestamp("started_at").toInstant()
+                    .atZone(ZoneId.systemDefault()).toOffsetDateTime());
+                Timestamp finishedAt = resultSet.getTimestamp("finished_at");
+                dto.setFinishedAt(finishedAt == null ? null
+                    : finishedAt.toInstant().atZone(ZoneId.systemDefault()).toOffsetDateTime());
+                dto.setStatus(resultSet.getString("status"));
+                dto.setUsersProcessed(resultSet.getLong("users_processed"));
+                dto.setRowsWritten(resultSet.getLong("rows_written"));
+                dto.setDurationMs(resultSet.getObject("duration_ms", Long.class));
+                dto.setUsersPerSecond(resultSet.getObject("users_per_second", Double.class));
+                dto.setErrorMessage(resultSet.getString("error_message"));
+                return dto;
+            }, limit);
+    }
+
+    record Row(long userId, RecommendationMode mode, int ranking, AreaUsage usage) {
+    }
+}
@@ -0,0 +1,189 @@
+package com.sysaccessos.backend.ai;
+
+import com.sysaccessos.backend.ai.dto.RecommendationCacheStatsDto;
+import com.sysaccessos.backend.history.UserAreaStatsUpdatedEvent;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache LRU limitado, com expiração, das recomendações de cada usuário. Invalidado pelo
+ * {@link UserAreaStatsUpdatedEvent}, publicado após o commit de cada gravação no histórico.
+ * <p>
+ * A invalidação só incrementa a geração do usuário (em faixas fixas indexadas pelo id, sem
+ * mapa por usuário); entradas e cálculos de gerações anteriores deixam de valer. Faltas
+ * simultâneas para a mesma chave e geração esperam um único cálculo.
+ */
+@Component
+public class RecommendationCache {
+
+    private static final int GENERATION_STRIPES = 4096;
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries;
+    private final Map<Key, Computation> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    // ReentrantLock em vez de synchronized: não prende a thread portadora no modo de threads virtuais.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public RecommendationCache(@Value("${sysaccessos.recommendations.cache.max-size:10000}") int maxSize,
+                               @Value("${sysaccessos.recommendations.cache.ttl:5m}") Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > RecommendationCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Recomendações do usuário para a consulta {@code query}; calculadas por {@code loader} na
+     * falta. {@code version} distingue resultados que dependem de outro estado (p. ex. a versão
+     * das permissões), sem precisar invalidá-los.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(long userId, String query, long version, Supplier<List<T>> loader) {
+        Key key = new Key(userId, query, version);
+        long generation = generation(userId);
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.generation() == generation && System.nanoTime() - entry.expiresAt() < 0) {
+                    hits.incrementAndGet();
+                    return (List<T>) entry.value();
+                }
+                entries.remove(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Computation computation = new Computation(generation, new CompletableFuture<>());
+        Computation running = inFlight.merge(key, computation,
+            (current, candidate) -> current.generation() >= generation ? current : candidate);
+        if (running != computation) {
+            coalesced.incrementAndGet();
+            return (List<T>) join(running.future());
+        }
+        misses.incrementAndGet();
+        try {
+            List<T> value = List.copyOf(loader.get());
+            lock.lock();
+            try {
+                if (generation(userId) == generation) {
+                    entries.put(key, new Entry(value, generation, System.nanoTime() + ttlNanos));
+                }
+            } finally {
+                lock.unlock();
+            }
+            computation.future().complete(value);
+            return value;
+        } catch (Throwable ex) {
+            // Inclui Error: quem espera o mesmo cálculo não pode ficar bloqueado para sempre.
+            computation.future().completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, computation);
+        }
+    }
+
+    /**
+     * Descarta as recomendações dos usuários; chamado depois do commit que gravou o histórico deles.
+     */
+    public void invalidate(Collection<Long> userIds) {
+        for (Long userId : userIds) {
+            generations.incrementAndGet(stripe(userId));
+        }
+        invalidations.addAndGet(userIds.size());
+    }
+
+    @EventListener
+    public void onUserAreaStatsUpdated(UserAreaStatsUpdatedEvent event) {
+        invalidate(event.userIds());
+    }
+
+    /**
+     * Descarta tudo, p. ex. quando os vizinhos das áreas são recalculados.
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+                generations.incrementAndGet(stripe);
+            }
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public RecommendationCacheStatsDto stats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        return new RecommendationCacheStatsDto(size, maxSize, hits.get(), misses.get(), coalesced.get(),
+            evictions.get(), invalidations.get());
+    }
+
+    private long generation(long userId) {
+        return generations.get(stripe(userId));
+    }
+
+    private static int stripe(long userId) {
+        return Long.hashCode(userId * 0x9E3779B97F4A7C15L) & (GENERATION_STRIPES - 1);
+    }
+
+    // Quem espera recebe a mesma exceção de quem calculou, sem o embrulho do CompletableFuture.
+    private static Object join(CompletableFuture<List<?>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private record Key(long userId, String query, long version) {
+    }
+
+    private record Entry(List<?> value, long generation, long expiresAt) {
+    }
+
+    private record Computation(long generation, CompletableFuture<List<?>> future) {
+    }
+}
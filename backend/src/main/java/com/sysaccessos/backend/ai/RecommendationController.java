@@ -1,12 +1,19 @@
 package com.sysaccessos.backend.ai;
 
 import com.sysaccessos.backend.ai.dto.AreaRecommendationDto;
+import com.sysaccessos.backend.ai.dto.PermissionRecommendationDto;
+import com.sysaccessos.backend.ai.dto.RecommendationCacheStatsDto;
+import com.sysaccessos.backend.ai.dto.RecommendationJobRunDto;
 import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequestMapping("/api/ai")
@@ -14,13 +21,60 @@ import org.springframework.web.bind.annotation.RestController;
 public class RecommendationController {
 
     private final RecommendationService recommendationService;
+    private final AreaSimilarityRebuild similarityRebuild;
+    private final RecommendationCache recommendationCache;
+    private final RecommendationPrecompute precompute;
+    private final PrecomputedRecommendations precomputed;
 
-    public RecommendationController(RecommendationService recommendationService) {
+    public RecommendationController(RecommendationService recommendationService,
+                                    AreaSimilarityRebuild similarityRebuild, RecommendationCache recommendationCache,
+                                    RecommendationPrecompute precompute, PrecomputedRecommendations precomputed) {
         this.recommendationService = recommendationService;
+        this.similarityRebuild = similarityRebuild;
+        this.recommendationCache = recommendationCache;
+        this.precompute = precompute;
+        this.precomputed = precomputed;
     }
 
     @GetMapping("/recommendations")
-    public List<AreaRecommendationDto> recommend(@RequestParam("cardIdentifier") String cardIdentifier) {
-        return recommendationService.recommendAreas(cardIdentifier);
+    public List<AreaRecommendationDto> recommend(
+        @RequestParam("cardIdentifier") String cardIdentifier,
+        @RequestParam(defaultValue = "FREQUENCY") RecommendationMode mode
+    ) {
+        return recommendationService.recommendAreas(cardIdentifier, mode);
+    }
+
+    @GetMapping("/recommendations/permissions")
+    public List<PermissionRecommendationDto> recommendPermissions(@RequestParam("cardIdentifier") String cardIdentifier) {
+        return recommendationService.recommendPermissions(cardIdentifier);
+    }
+
+    @GetMapping("/recommendations/cache")
+    public RecommendationCacheStatsDto cacheStats() {
+        return recommendationCache.stats();
+    }
+
+    @PostMapping("/recommendations/precompute")
+    public ResponseEntity<Void> precompute() {
+        if (!precompute.start()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Pré-cálculo das recomendações já em andamento.");
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/recommendations/precompute/runs")
+    public List<RecommendationJobRunDto> precomputeRuns(@RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limite inválido.");
+        }
+        return precomputed.runs(Math.min(limit, 100));
+    }
+
+    @PostMapping("/similarities/rebuild")
+    public ResponseEntity<Void> rebuildSimilarities() {
+        if (!similarityRebuild.start()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Cálculo de similaridade já em andamento.");
+        }
+        return ResponseEntity.accepted().build();
     }
 }
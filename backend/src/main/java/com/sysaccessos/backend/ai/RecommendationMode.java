@@ -0,0 +1,11 @@
+package com.sysaccessos.backend.ai;
+
+/**
+ * Critério de ordenação das recomendações.
+ */
+public enum RecommendationMode {
+    /** Total de acessos desde sempre; empate resolvido pelo acesso mais recente. */
+    FREQUENCY,
+    /** Pontuação com decaimento exponencial: acessos recentes pesam mais que hábitos antigos. */
+    DECAY
+}
@@ -0,0 +1,205 @@
+package com.sysaccessos.backend.ai;
+
+import com.sysaccessos.backend.history.AreaUsage;
+import com.sysaccessos.backend.history.UserAreaStats;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pré-calcula de madrugada as recomendações de todos os usuários em {@link PrecomputedRecommendations}.
+ * Os usuários de {@code user_area_stats} são divididos em faixas de ids processadas em paralelo;
+ * cada faixa é lida numa consulta e gravada numa transação. Duração e vazão ficam registradas
+ * em {@code recommendation_job_runs}. Roda também na primeira inicialização com acessos e sem
+ * execução concluída, ou sob demanda.
+ */
+@Component
+public class RecommendationPrecompute {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecommendationPrecompute.class);
+
+    // A marca é comparada com updated_at, o instante da gravação, tomado antes do commit: uma
+    // gravação iniciada pouco antes da execução pode só ficar visível depois que a faixa do
+    // usuário foi lida. A folga cobre essa transação.
+    private static final Duration ACTIVITY_MARGIN = Duration.ofMinutes(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PrecomputedRecommendations store;
+    private final UserAreaStats userAreaStats;
+    private final Clock clock;
+    private final int usersPerChunk;
+    private final int parallelism;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public RecommendationPrecompute(JdbcTemplate jdbcTemplate, PrecomputedRecommendations store,
+                                    UserAreaStats userAreaStats, Clock clock,
+                                    @Value("${sysaccessos.recommendations.precompute.users-per-chunk:1000}") int usersPerChunk,
+                                    @Value("${sysaccessos.recommendations.precompute.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.store = store;
+        this.userAreaStats = userAreaStats;
+        this.clock = clock;
+        this.usersPerChunk = Math.max(usersPerChunk, 1);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        boolean hasStats = !jdbcTemplate.queryForList("SELECT 1 FROM user_area_stats LIMIT 1").isEmpty();
+        if (hasStats && !store.hasCompletedRun()) {
+            start();
+        }
+    }
+
+    @Scheduled(cron = "${sysaccessos.recommendations.precompute.cron:0 0 2 * * *}")
+    public void precomputeNightly() {
+        if (running.compareAndSet(false, true)) {
+            try {
+                precompute();
+            } catch (RuntimeException ex) {
+                LOGGER.error("Falha no pré-cálculo das recomendações.", ex);
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+
+    /**
+     * Inicia o pré-cálculo em segundo plano. Retorna {@code false} se já houver um em andamento.
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                precompute();
+            } catch (RuntimeException ex) {
+                LOGGER.error("Falha no pré-cálculo das recomendações.", ex);
+            } finally {
+                running.set(false);
+            }
+        }, "recommendation-precompute");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private void precompute() {
+        long started = System.nanoTime();
+        Instant startedAt = clock.instant();
+        long runId = store.startRun(startedAt, startedAt.minus(ACTIVITY_MARGIN));
+        AtomicLong users = new AtomicLong();
+        AtomicLong rows = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            Map<String, Object> range = jdbcTemplate.queryForMap(
+                "SELECT MIN(user_id) AS first_user, MAX(user_id) AS last_user FROM user_area_stats");
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            if (range.get("first_user") != null) {
+                long first = ((Number) range.get("first_user")).longValue();
+                long last = ((Number) range.get("last_user")).longValue();
+                for (long from = first; from <= last; from += usersPerChunk) {
+                    long fromUser = from;
+                    long toUser = Math.min(from + usersPerChunk - 1, last);
+                    chunks.add(CompletableFuture.runAsync(
+                        () -> precomputeChunk(runId, fromUser, toUser, startedAt, users, rows), pool));
+                }
+            }
+            CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+        } catch (RuntimeException ex) {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            store.finishRun(runId, PrecomputedRecommendations.FAILED, clock.instant(), users.get(), rows.get(),
+                (System.nanoTime() - started) / 1_000_000, String.valueOf(cause.getMessage()));
+            throw ex;
+        } finally {
+            pool.shutdownNow();
+        }
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        store.finishRun(runId, PrecomputedRecommendations.COMPLETED, clock.instant(), users.get(), rows.get(),
+            durationMs, null);
+        LOGGER.info("Recomendações pré-calculadas para {} usuário(s) ({} linha(s)) em {} ms.",
+            users.get(), rows.get(), durationMs);
+    }
+
+    private void precomputeChunk(long runId, long fromUser, long toUser, Instant at, AtomicLong users, AtomicLong rows) {
+        ChunkCollector collector = new ChunkCollector(at);
+        jdbcTemplate.query("SELECT user_id, area_id, access_count, last_access_at, decay_score FROM user_area_stats "
+            + "WHERE user_id BETWEEN ? AND ? ORDER BY user_id", collector, fromUser, toUser);
+        collector.flush();
+        store.replaceUsers(runId, fromUser, toUser, collector.rows);
+        users.addAndGet(collector.users);
+        rows.addAndGet(collector.rows.size());
+    }
+
+    /**
+     * Agrupa as linhas de uma faixa por usuário (vêm ordenadas por {@code user_id}) e seleciona as
+     * recomendações de cada modo assim que o usuário termina.
+     */
+    private final class ChunkCollector implements RowCallbackHandler {
+
+        private final Instant at;
+        private final List<PrecomputedRecommendations.Row> rows = new ArrayList<>();
+        private final List<AreaUsage> areas = new ArrayList<>();
+        private long currentUser;
+        private int users;
+
+        ChunkCollector(Instant at) {
+            this.at = at;
+        }
+
+        @Override
+        public void processRow(ResultSet resultSet) throws SQLException {
+            long userId = resultSet.getLong("user_id");
+            if (userId != currentUser) {
+                flush();
+                currentUser = userId;
+            }
+            areas.add(new AreaUsage(
+                resultSet.getLong("area_id"),
+                null,
+                resultSet.getLong("access_count"),
+                resultSet.getTimestamp("last_access_at").toInstant().atZone(ZoneId.systemDefault()).toOffsetDateTime(),
+                resultSet.getDouble("decay_score")));
+        }
+
+        void flush() {
+            if (areas.isEmpty()) {
+                return;
+            }
+            for (RecommendationMode mode : RecommendationMode.values()) {
+                List<AreaUsage> selected = RecommendationService.select(mode, areas, at, userAreaStats.halfLife());
+                for (int ranking = 0; ranking < selected.size(); ranking++) {
+                    rows.add(new PrecomputedRecommendations.Row(currentUser, mode, ranking, selected.get(ranking)));
+                }
+            }
+            users++;
+            areas.clear();
+        }
+    }
+}
@@ -1,106 +1,242 @@
 package com.sysaccessos.backend.ai;
 
+import com.sysaccessos.backend.ai.AreaSimilarities.AreaSimilarity;
 import com.sysaccessos.backend.ai.dto.AreaRecommendationDto;
-import com.sysaccessos.backend.history.AccessHistory;
-import com.sysaccessos.backend.history.AccessHistoryRepository;
-import com.sysaccessos.backend.user.User;
-import com.sysaccessos.backend.user.UserRepository;
-import java.time.OffsetDateTime;
+import com.sysaccessos.backend.ai.dto.PermissionRecommendationDto;
+import com.sysaccessos.backend.area.AccessArea;
+import com.sysaccessos.backend.area.AccessAreaRepository;
+import com.sysaccessos.backend.history.AreaUsage;
+import com.sysaccessos.backend.history.UserAreaStats;
+import com.sysaccessos.backend.permission.ActivePermissionSnapshot;
+import com.sysaccessos.backend.permission.PermissionDecisionIndex;
+import com.sysaccessos.backend.user.CardHolder;
+import com.sysaccessos.backend.user.CardHolderCache;
+import com.sysaccessos.backend.user.UnknownCardException;
+import io.micrometer.core.annotation.Timed;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
 public class RecommendationService {
 
-    private final UserRepository userRepository;
-    private final AccessHistoryRepository historyRepository;
+    private static final int RECOMMENDATION_LIMIT = 5;
 
-    public RecommendationService(UserRepository userRepository, AccessHistoryRepository historyRepository) {
-        this.userRepository = userRepository;
-        this.historyRepository = historyRepository;
+    private static final Comparator<AreaUsage> BY_FREQUENCY = Comparator.comparing(AreaUsage::accessCount)
+        .reversed()
+        .thenComparing(AreaUsage::lastAccessAt, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private static final Comparator<ScoredArea> BY_SCORE = Comparator.comparingDouble(ScoredArea::score).reversed()
+        .thenComparing(ScoredArea::usage, BY_FREQUENCY);
+
+    private final CardHolderCache cardHolderCache;
+    private final UserAreaStats userAreaStats;
+    private final ActivePermissionSnapshot activePermissions;
+    private final PermissionDecisionIndex permissionIndex;
+    private final AreaSimilarities areaSimilarities;
+    private final AccessAreaRepository areaRepository;
+    private final RecommendationCache cache;
+    private final PrecomputedRecommendations precomputed;
+    private final Clock clock;
+
+    public RecommendationService(CardHolderCache cardHolderCache, UserAreaStats userAreaStats,
+                                 ActivePermissionSnapshot activePermissions, PermissionDecisionIndex permissionIndex,
+                                 AreaSimilarities areaSimilarities, AccessAreaRepository areaRepository,
+                                 RecommendationCache cache, PrecomputedRecommendations precomputed, Clock clock) {
+        this.cardHolderCache = cardHolderCache;
+        this.userAreaStats = userAreaStats;
+        this.activePermissions = activePermissions;
+        this.permissionIndex = permissionIndex;
+        this.areaSimilarities = areaSimilarities;
+        this.areaRepository = areaRepository;
+        this.cache = cache;
+        this.precomputed = precomputed;
+        this.clock = clock;
     }
 
-    @Transactional(readOnly = true)
-    public List<AreaRecommendationDto> recommendAreas(String cardIdentifier) {
-        if (cardIdentifier == null || cardIdentifier.isBlank()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe o identificador do cartão.");
-        }
+    /**
+     * Lê a lista do pré-cálculo noturno ({@link RecommendationPrecompute}); calcula na hora só
+     * para usuários novos ou com acessos desde a última execução.
+     */
+    @Timed(value = "sysaccessos.access.decision", extraTags = {"operation", "recommend"}, histogram = true)
+    public List<AreaRecommendationDto> recommendAreas(String cardIdentifier, RecommendationMode mode) {
+        CardHolder user = resolve(cardIdentifier);
+        return cache.get(user.id(), mode.name(), 0, () -> {
+            Instant now = clock.instant();
+            List<AreaUsage> selected = precomputed.find(user.id(), mode)
+                .orElseGet(() -> mode == RecommendationMode.DECAY
+                    ? select(mode, userAreaStats.areas(user.id()), now, userAreaStats.halfLife())
+                    : userAreaStats.topAreas(user.id(), RECOMMENDATION_LIMIT));
+            return toDtos(mode, selected, now);
+        });
+    }
 
-        User user = userRepository.findByCardIdentifier(cardIdentifier.trim())
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cartão não identificado."));
+    /**
+     * Áreas ativas sem permissão vigente para o usuário, parecidas com as que ele já usa ou
+     * às quais já tem acesso: cada área de partida contribui com o seu peso de uso vezes a
+     * similaridade guardada em {@link AreaSimilarities}.
+     */
+    @Timed(value = "sysaccessos.access.decision", extraTags = {"operation", "recommend-permissions"}, histogram = true)
+    public List<PermissionRecommendationDto> recommendPermissions(String cardIdentifier) {
+        CardHolder user = resolve(cardIdentifier);
+        // A versão das permissões entra na chave: uma concessão nova não serve uma lista antiga.
+        return cache.get(user.id(), "PERMISSIONS", permissionIndex.version(), () -> permissionsFor(user.id()));
+    }
 
-        List<AccessHistory> history = historyRepository.findByUserIdOrderByRecordedAtDesc(user.getId());
-        if (history.isEmpty()) {
-            return List.of();
+    private List<PermissionRecommendationDto> permissionsFor(Long userId) {
+        Set<Long> granted = activePermissions.activeAreaIds(userId);
+        Map<Long, Double> seeds = new HashMap<>();
+        for (AreaUsage usage : userAreaStats.areas(userId)) {
+            seeds.put(usage.areaId(), (double) AreaCoAccessMatrix.weight(usage.accessCount()));
+        }
+        for (Long areaId : granted) {
+            seeds.putIfAbsent(areaId, (double) AreaCoAccessMatrix.weight(1));
         }
 
-        Map<Long, AreaStats> stats = new HashMap<>();
-        for (AccessHistory record : history) {
-            if (record.getArea() == null) {
-                continue;
-            }
-            Long areaId = record.getArea().getId();
-            if (areaId == null) {
+        Map<Long, Candidate> candidates = new HashMap<>();
+        for (AreaSimilarity similarity : areaSimilarities.neighborsOf(seeds.keySet())) {
+            if (granted.contains(similarity.neighborAreaId())) {
                 continue;
             }
-            AreaStats areaStats = stats.computeIfAbsent(areaId, id -> new AreaStats(
-                id,
-                record.getArea().getName()
-            ));
-            areaStats.increment(record.getRecordedAt());
+            double contribution = seeds.get(similarity.areaId()) * similarity.similarity();
+            candidates.computeIfAbsent(similarity.neighborAreaId(), Candidate::new)
+                .add(similarity.areaId(), contribution);
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
         }
 
-        return stats.values().stream()
-            .sorted(Comparator.comparingLong(AreaStats::count).reversed()
-                .thenComparing(AreaStats::lastAccess, Comparator.nullsLast(Comparator.reverseOrder())))
-            .limit(5)
-            .map(AreaStats::toDto)
+        Map<Long, AccessArea> areas = new HashMap<>();
+        Set<Long> areaIds = new HashSet<>(candidates.keySet());
+        candidates.values().forEach(candidate -> areaIds.add(candidate.basedOnAreaId));
+        areaRepository.findAllById(areaIds).forEach(area -> areas.put(area.getId(), area));
+        List<Candidate> eligible = candidates.values().stream()
+            .filter(candidate -> areas.containsKey(candidate.areaId) && areas.get(candidate.areaId).isActive())
+            .toList();
+        return top(eligible, Comparator.comparingDouble((Candidate candidate) -> candidate.score).reversed()
+                .thenComparing(candidate -> candidate.areaId))
+            .stream()
+            .map(candidate -> toDto(candidate, areas))
             .collect(Collectors.toList());
     }
 
-    private static class AreaStats {
-        private final Long areaId;
-        private final String areaName;
-        private long count;
-        private OffsetDateTime lastAccess;
+    private CardHolder resolve(String cardIdentifier) {
+        if (cardIdentifier == null || cardIdentifier.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe o identificador do cartão.");
+        }
+        return cardHolderCache.resolve(cardIdentifier.trim())
+            .orElseThrow(() -> new UnknownCardException(HttpStatus.NOT_FOUND));
+    }
 
-        private AreaStats(Long areaId, String areaName) {
-            this.areaId = areaId;
-            this.areaName = areaName;
+    /**
+     * Áreas recomendadas no modo dado, em ordem. No modo {@code DECAY} a ordem não muda com o
+     * passar do tempo (todas as pontuações decaem no mesmo ritmo), só com novos acessos; por
+     * isso o resultado pode ser calculado antes e pontuado na leitura.
+     */
+    public static List<AreaUsage> select(RecommendationMode mode, List<AreaUsage> usage, Instant at, Duration halfLife) {
+        if (mode != RecommendationMode.DECAY) {
+            return top(usage, BY_FREQUENCY);
+        }
+        List<ScoredArea> scored = new ArrayList<>(usage.size());
+        for (AreaUsage area : usage) {
+            scored.add(new ScoredArea(area, area.decayScoreAt(at, halfLife)));
         }
+        return top(scored, BY_SCORE).stream()
+            .map(ScoredArea::usage)
+            .toList();
+    }
 
-        void increment(OffsetDateTime recordedAt) {
-            count++;
-            if (recordedAt != null) {
-                if (lastAccess == null || recordedAt.isAfter(lastAccess)) {
-                    lastAccess = recordedAt;
+    private List<AreaRecommendationDto> toDtos(RecommendationMode mode, List<AreaUsage> selected, Instant now) {
+        return selected.stream()
+            .map(area -> {
+                AreaRecommendationDto dto = toDto(area);
+                if (mode == RecommendationMode.DECAY) {
+                    dto.setScore(area.decayScoreAt(now, userAreaStats.halfLife()));
+                    dto.setRecommendationReason(String.format("Usuário acessou %s %d vez(es), com uso recente.",
+                        area.areaName(), area.accessCount()));
                 }
+                return dto;
+            })
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * As {@link #RECOMMENDATION_LIMIT} primeiras na ordem dada, com um heap limitado
+     * (a pior das escolhidas no topo) em vez de ordenar a lista inteira.
+     */
+    private static <T> List<T> top(List<T> items, Comparator<T> order) {
+        PriorityQueue<T> heap = new PriorityQueue<>(RECOMMENDATION_LIMIT + 1, order.reversed());
+        for (T item : items) {
+            if (heap.size() < RECOMMENDATION_LIMIT) {
+                heap.add(item);
+            } else if (order.compare(item, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(item);
             }
         }
+        List<T> selected = new ArrayList<>(heap);
+        selected.sort(order);
+        return selected;
+    }
 
-        long count() {
-            return count;
-        }
+    private AreaRecommendationDto toDto(AreaUsage usage) {
+        AreaRecommendationDto dto = new AreaRecommendationDto();
+        dto.setAreaId(usage.areaId());
+        dto.setAreaName(usage.areaName());
+        dto.setAccessCount(usage.accessCount());
+        dto.setLastAccessAt(usage.lastAccessAt());
+        dto.setRecommendationReason(String.format("Usuário acessou %s %d vez(es) recentemente.",
+            usage.areaName(), usage.accessCount()));
+        return dto;
+    }
 
-        OffsetDateTime lastAccess() {
-            return lastAccess;
+    private PermissionRecommendationDto toDto(Candidate candidate, Map<Long, AccessArea> areas) {
+        PermissionRecommendationDto dto = new PermissionRecommendationDto();
+        dto.setAreaId(candidate.areaId);
+        dto.setAreaName(areas.get(candidate.areaId).getName());
+        dto.setScore(candidate.score);
+        dto.setBasedOnAreaId(candidate.basedOnAreaId);
+        AccessArea basedOn = areas.get(candidate.basedOnAreaId);
+        dto.setBasedOnAreaName(basedOn == null ? null : basedOn.getName());
+        dto.setRecommendationReason(basedOn == null
+            ? String.format("Usuários com o mesmo perfil de uso acessam %s.", dto.getAreaName())
+            : String.format("Usuários que acessam %s também acessam %s.", basedOn.getName(), dto.getAreaName()));
+        return dto;
+    }
+
+    private record ScoredArea(AreaUsage usage, double score) {
+    }
+
+    // Soma das contribuições de uma área candidata; guarda a área de partida que mais contribuiu.
+    private static final class Candidate {
+
+        private final long areaId;
+        private double score;
+        private long basedOnAreaId;
+        private double bestContribution = -1;
+
+        Candidate(long areaId) {
+            this.areaId = areaId;
         }
 
-        AreaRecommendationDto toDto() {
-            AreaRecommendationDto dto = new AreaRecommendationDto();
-            dto.setAreaId(areaId);
-            dto.setAreaName(areaName);
-            dto.setAccessCount(count);
-            dto.setLastAccessAt(lastAccess);
-            dto.setRecommendationReason(String.format("Usuário acessou %s %d vez(es) recentemente.", areaName, count));
-            return dto;
+        void add(long seedAreaId, double contribution) {
+            score += contribution;
+            if (contribution > bestContribution) {
+                bestContribution = contribution;
+                basedOnAreaId = seedAreaId;
+            }
         }
     }
 }
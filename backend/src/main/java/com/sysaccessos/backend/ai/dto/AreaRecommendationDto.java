@@ -8,6 +8,7 @@ public class AreaRecommendationDto {
     private String areaName;
     private long accessCount;
     private OffsetDateTime lastAccessAt;
+    private Double score;
     private String recommendationReason;
 
     public Long getAreaId() {
@@ -42,6 +43,14 @@ public class AreaRecommendationDto {
         this.lastAccessAt = lastAccessAt;
     }
 
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+
     public String getRecommendationReason() {
         return recommendationReason;
     }
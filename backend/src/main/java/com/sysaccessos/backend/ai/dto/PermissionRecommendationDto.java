@@ -0,0 +1,59 @@
+package com.sysaccessos.backend.ai.dto;
+
+public class PermissionRecommendationDto {
+
+    private Long areaId;
+    private String areaName;
+    private double score;
+    private Long basedOnAreaId;
+    private String basedOnAreaName;
+    private String recommendationReason;
+
+    public Long getAreaId() {
+        return areaId;
+    }
+
+    public void setAreaId(Long areaId) {
+        this.areaId = areaId;
+    }
+
+    public String getAreaName() {
+        return areaName;
+    }
+
+    public void setAreaName(String areaName) {
+        this.areaName = areaName;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public Long getBasedOnAreaId() {
+        return basedOnAreaId;
+    }
+
+    public void setBasedOnAreaId(Long basedOnAreaId) {
+        this.basedOnAreaId = basedOnAreaId;
+    }
+
+    public String getBasedOnAreaName() {
+        return basedOnAreaName;
+    }
+
+    public void setBasedOnAreaName(String basedOnAreaName) {
+        this.basedOnAreaName = basedOnAreaName;
+    }
+
+    public String getRecommendationReason() {
+        return recommendationReason;
+    }
+
+    public void setRecommendationReason(String recommendationReason) {
+        this.recommendationReason = recommendationReason;
+    }
+}
@@ -0,0 +1,87 @@
+package com.sysaccessos.backend.ai.dto;
+
+public class RecommendationCacheStatsDto {
+
+    private int size;
+    private int maxSize;
+    private long hits;
+    private long misses;
+    private long coalesced;
+    private long evictions;
+    private long invalidations;
+
+    public RecommendationCacheStatsDto() {
+    }
+
+    public RecommendationCacheStatsDto(int size, int maxSize, long hits, long misses, long coalesced,
+                                       long evictions, long invalidations) {
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.coalesced = coalesced;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public void setCoalesced(long coalesced) {
+        this.coalesced = coalesced;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public void setInvalidations(long invalidations) {
+        this.invalidations = invalidations;
+    }
+
+    public double getHitRate() {
+        long total = hits + misses + coalesced;
+        return total == 0 ? 0.0 : (double) (hits + coalesced) / total;
+    }
+}
@@ -0,0 +1,88 @@
+package com.sysaccessos.backend.ai.dto;
+
+import java.time.OffsetDateTime;
+
+public class RecommendationJobRunDto {
+
+    private Long id;
+    private OffsetDateTime startedAt;
+    private OffsetDateTime finishedAt;
+    private String status;
+    private long usersProcessed;
+    private long rowsWritten;
+    private Long durationMs;
+    private Double usersPerSecond;
+    private String errorMessage;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public OffsetDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(OffsetDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public OffsetDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(OffsetDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getUsersProcessed() {
+        return usersProcessed;
+    }
+
+    public void setUsersProcessed(long usersProcessed) {
+        this.usersProcessed = usersProcessed;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public void setRowsWritten(long rowsWritten) {
+        this.rowsWritten = rowsWritten;
+    }
+
+    public Long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(Long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public Double getUsersPerSecond() {
+        return usersPerSecond;
+    }
+
+    public void setUsersPerSecond(Double usersPerSecond) {
+        this.usersPerSecond = usersPerSecond;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
@@ -8,6 +8,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import java.time.OffsetDateTime;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -61,6 +62,10 @@ public class AccessArea {
     @Column(nullable = false)
     private OffsetDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     public Long getId() {
         return id;
     }
@@ -173,11 +178,19 @@ public class AccessArea {
         this.updatedAt = updatedAt;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public void startUsage(User user, String cardIdentifier) {
+        startUsage(user.getId(), user.getName(), cardIdentifier);
+    }
+
+    public void startUsage(Long userId, String userName, String cardIdentifier) {
         this.inUse = true;
-        this.occupantName = user.getName();
+        this.occupantName = userName;
         this.occupantCardIdentifier = cardIdentifier;
-        this.occupantUserId = user.getId();
+        this.occupantUserId = userId;
         this.lastMovementAt = OffsetDateTime.now();
     }
 
@@ -1,59 +1,104 @@
 package com.sysaccessos.backend.area;
 
+import com.sysaccessos.backend.access.AccessDecisionMetrics;
 import com.sysaccessos.backend.area.dto.AccessAreaDto;
 import com.sysaccessos.backend.area.dto.AreaMovementRequest;
 import com.sysaccessos.backend.area.dto.AreaMovementResponse;
-import com.sysaccessos.backend.history.AccessHistory;
-import com.sysaccessos.backend.history.AccessHistoryRepository;
-import com.sysaccessos.backend.permission.UserPermission;
-import com.sysaccessos.backend.permission.UserPermissionRepository;
-import com.sysaccessos.backend.user.User;
-import com.sysaccessos.backend.user.UserRepository;
-import java.time.LocalDate;
-import java.util.List;
+import com.sysaccessos.backend.config.AfterCommit;
+import com.sysaccessos.backend.history.AccessHistoryEvent;
+import com.sysaccessos.backend.history.AccessHistoryWriter;
+import com.sysaccessos.backend.live.LiveEventBroadcaster;
+import com.sysaccessos.backend.permission.ActivePermissionSnapshot;
+import com.sysaccessos.backend.user.CardHolder;
+import com.sysaccessos.backend.user.CardHolderCache;
+import com.sysaccessos.backend.user.UnknownCardException;
+import io.micrometer.core.annotation.Timed;
+import java.time.Clock;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
 public class AccessAreaMovementService {
 
     private final AccessAreaRepository areaRepository;
-    private final UserRepository userRepository;
-    private final UserPermissionRepository permissionRepository;
-    private final AccessHistoryRepository historyRepository;
+    private final CardHolderCache cardHolderCache;
+    private final ActivePermissionSnapshot activePermissions;
+    private final AccessHistoryWriter historyWriter;
     private final AccessAreaService accessAreaService;
+    private final AreaOccupancyLocks occupancyLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final AccessDecisionMetrics decisionMetrics;
+    private final LiveEventBroadcaster liveEvents;
+    private final Clock clock;
 
-    public AccessAreaMovementService(AccessAreaRepository areaRepository, UserRepository userRepository,
-                                     UserPermissionRepository permissionRepository,
-                                     AccessHistoryRepository historyRepository,
-                                     AccessAreaService accessAreaService) {
+    public AccessAreaMovementService(AccessAreaRepository areaRepository, CardHolderCache cardHolderCache,
+                                     ActivePermissionSnapshot activePermissions,
+                                     AccessHistoryWriter historyWriter,
+                                     AccessAreaService accessAreaService,
+                                     AreaOccupancyLocks occupancyLocks,
+                                     PlatformTransactionManager transactionManager,
+                                     AccessDecisionMetrics decisionMetrics,
+                                     LiveEventBroadcaster liveEvents,
+                                     Clock clock) {
         this.areaRepository = areaRepository;
-        this.userRepository = userRepository;
-        this.permissionRepository = permissionRepository;
-        this.historyRepository = historyRepository;
+        this.cardHolderCache = cardHolderCache;
+        this.activePermissions = activePermissions;
+        this.historyWriter = historyWriter;
         this.accessAreaService = accessAreaService;
+        this.occupancyLocks = occupancyLocks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.decisionMetrics = decisionMetrics;
+        this.liveEvents = liveEvents;
+        this.clock = clock;
     }
 
-    @Transactional
+    /**
+     * Movimentações da mesma área são serializadas pelo lock da área, que envolve
+     * toda a transação; o {@code @Version} de {@link AccessArea} protege contra
+     * disputas entre instâncias da aplicação.
+     */
+    @Timed(value = "sysaccessos.access.decision", extraTags = {"operation", "move"}, histogram = true)
     public AreaMovementResponse move(AreaMovementRequest request) {
         String cardIdentifier = request.getCardIdentifier() == null ? "" : request.getCardIdentifier().trim();
         if (cardIdentifier.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O identificador do cartão é obrigatório.");
         }
 
-        AccessArea area = areaRepository.findById(request.getAreaId())
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Área informada não existe."));
+        // Cartões desconhecidos são recusados antes do lock da área; repetições nem chegam ao banco.
+        CardHolder user = cardHolderCache.resolve(cardIdentifier).orElse(null);
+        if (user == null) {
+            decisionMetrics.denied(AccessDecisionMetrics.MOVE, AccessDecisionMetrics.UNKNOWN_CARD);
+            throw new UnknownCardException(HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            return occupancyLocks.withAreaLock(request.getAreaId(),
+                () -> transactionTemplate.execute(status -> transition(request.getAreaId(), user, cardIdentifier,
+                    request.getNotes())));
+        } catch (OptimisticLockingFailureException ex) {
+            decisionMetrics.denied(AccessDecisionMetrics.MOVE, AccessDecisionMetrics.CONCURRENT_UPDATE);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Sala alterada por outra movimentação. Tente novamente.");
+        }
+    }
+
+    private AreaMovementResponse transition(Long areaId, CardHolder user, String cardIdentifier, String notes) {
+        AccessArea area = areaRepository.findById(areaId).orElse(null);
+        if (area == null) {
+            decisionMetrics.denied(AccessDecisionMetrics.MOVE, AccessDecisionMetrics.UNKNOWN_AREA);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Área informada não existe.");
+        }
 
         if (!area.isActive()) {
+            decisionMetrics.denied(AccessDecisionMetrics.MOVE, AccessDecisionMetrics.INACTIVE_AREA);
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Área informada está inativa.");
         }
 
-        User user = userRepository.findByCardIdentifier(cardIdentifier)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cartão não identificado."));
-
-        if (!hasActivePermission(user.getId(), area.getId())) {
+        if (!activePermissions.isActive(user.id(), area.getId())) {
+            decisionMetrics.denied(AccessDecisionMetrics.MOVE, AccessDecisionMetrics.NO_PERMISSION);
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Usuário sem permissão ativa para a área informada.");
         }
 
@@ -61,11 +106,12 @@ public class AccessAreaMovementService {
         String message;
 
         if (!area.isInUse()) {
-            area.startUsage(user, cardIdentifier);
+            area.startUsage(user.id(), user.name(), cardIdentifier);
             movementType = "ENTRADA";
             message = "Uso da sala iniciado.";
         } else {
             if (!cardIdentifier.equals(area.getOccupantCardIdentifier())) {
+                decisionMetrics.denied(AccessDecisionMetrics.MOVE, AccessDecisionMetrics.AREA_OCCUPIED);
                 throw new ResponseStatusException(HttpStatus.CONFLICT, "Sala em uso por outro cartão.");
             }
             area.finishUsage();
@@ -73,28 +119,14 @@ public class AccessAreaMovementService {
             message = "Uso da sala finalizado.";
         }
 
-        AccessHistory history = new AccessHistory();
-        history.setUser(user);
-        history.setArea(area);
-        history.setEventType(movementType);
-        history.setResult("AUTORIZADO");
-        history.setCardIdentifier(cardIdentifier);
-        history.setNotes(request.getNotes());
-        historyRepository.save(history);
-
         areaRepository.save(area);
+        decisionMetrics.authorized(AccessDecisionMetrics.MOVE);
+        historyWriter.enqueue(AccessHistoryEvent.of(clock,
+            user.id(), user.name(), area.getId(), area.getName(), movementType, "AUTORIZADO", cardIdentifier, notes));
 
         AccessAreaDto dto = accessAreaService.toDto(area);
-        return new AreaMovementResponse(area.getId(), movementType, message, dto);
-    }
-
-    private boolean hasActivePermission(Long userId, Long areaId) {
-        LocalDate today = LocalDate.now();
-        List<UserPermission> permissions = permissionRepository.findByUserIdAndAreaId(userId, areaId);
-        return permissions.stream().anyMatch(permission ->
-            !permission.getValidFrom().isAfter(today)
-                && !permission.getValidUntil().isBefore(today)
-                && "ATIVA".equalsIgnoreCase(permission.getStatus())
-        );
+        AreaMovementResponse response = new AreaMovementResponse(area.getId(), movementType, message, dto);
+        AfterCommit.run(() -> liveEvents.publish(LiveEventBroadcaster.OCCUPANCY, response));
+        return response;
     }
 }
@@ -2,14 +2,16 @@ package com.sysaccessos.backend.area;
 
 import com.sysaccessos.backend.area.dto.AccessAreaDto;
 import com.sysaccessos.backend.area.dto.AccessAreaRequest;
-import com.sysaccessos.backend.permission.UserPermission;
-import com.sysaccessos.backend.permission.UserPermissionRepository;
-import com.sysaccessos.backend.user.User;
-import com.sysaccessos.backend.user.UserRepository;
-import java.time.LocalDate;
+import com.sysaccessos.backend.history.AccessHistoryWriter;
+import com.sysaccessos.backend.permission.ActivePermissionSnapshot;
+import com.sysaccessos.backend.user.CardHolder;
+import com.sysaccessos.backend.user.CardHolderCache;
+import com.sysaccessos.backend.user.UnknownCardException;
+import io.micrometer.core.annotation.Timed;
+import java.time.Duration;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
@@ -20,15 +22,20 @@ import org.springframework.web.server.ResponseStatusException;
 @Service
 public class AccessAreaService {
 
+    // Espera máxima pela gravação do histórico enfileirado antes de remover uma área.
+    private static final Duration HISTORY_FLUSH_TIMEOUT = Duration.ofSeconds(5);
+
     private final AccessAreaRepository areaRepository;
-    private final UserRepository userRepository;
-    private final UserPermissionRepository permissionRepository;
+    private final CardHolderCache cardHolderCache;
+    private final ActivePermissionSnapshot activePermissions;
+    private final AccessHistoryWriter historyWriter;
 
-    public AccessAreaService(AccessAreaRepository areaRepository, UserRepository userRepository,
-                             UserPermissionRepository permissionRepository) {
+    public AccessAreaService(AccessAreaRepository areaRepository, CardHolderCache cardHolderCache,
+                             ActivePermissionSnapshot activePermissions, AccessHistoryWriter historyWriter) {
         this.areaRepository = areaRepository;
-        this.userRepository = userRepository;
-        this.permissionRepository = permissionRepository;
+        this.cardHolderCache = cardHolderCache;
+        this.activePermissions = activePermissions;
+        this.historyWriter = historyWriter;
     }
 
     @Transactional(readOnly = true)
@@ -72,12 +79,30 @@ public class AccessAreaService {
         return toDto(saved);
     }
 
+    /**
+     * access_history é particionada e não tem chave estrangeira; o vínculo com o histórico é a
+     * chave estrangeira de user_area_stats, gravada na mesma transação dos eventos e mantida
+     * depois do arquivamento. Antes de remover, espera o gravador assíncrono gravar o que já
+     * estava na fila, para que um evento pendente da área barre a remoção (409) em vez de ser
+     * recusado depois; se a fila não esvaziar a tempo, a remoção também é recusada.
+     */
     @Transactional
     public void delete(Long id) {
         AccessArea area = areaRepository.findById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Área de acesso não encontrada."));
+        try {
+            if (!historyWriter.awaitWritten(HISTORY_FLUSH_TIMEOUT)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Histórico de acessos ainda pendente de gravação; tente novamente.");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "Histórico de acessos ainda pendente de gravação; tente novamente.");
+        }
         try {
             areaRepository.delete(area);
+            areaRepository.flush();
         } catch (DataIntegrityViolationException ex) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Área vinculada a permissões ou históricos.");
         }
@@ -114,6 +139,7 @@ public class AccessAreaService {
     }
 
     @Transactional(readOnly = true)
+    @Timed(value = "sysaccessos.access.decision", extraTags = {"operation", "authorized-areas"}, histogram = true)
     public List<AccessAreaDto> findAuthorizedByCard(String cardIdentifier) {
         if (cardIdentifier == null || cardIdentifier.isBlank()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O identificador do cartão é obrigatório.");
@@ -124,23 +150,10 @@ public class AccessAreaService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O identificador do cartão é obrigatório.");
         }
 
-        User user = userRepository.findByCardIdentifier(trimmedIdentifier)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Cartão não identificado."));
-
-        List<UserPermission> permissions = permissionRepository.findByUserId(user.getId()).stream()
-            .filter(this::isPermissionActive)
-            .collect(Collectors.toList());
-
-        if (permissions.isEmpty()) {
-            return List.of();
-        }
-
-        List<Long> areaIds = permissions.stream()
-            .map(permission -> permission.getArea().getId())
-            .filter(Objects::nonNull)
-            .distinct()
-            .collect(Collectors.toList());
+        CardHolder user = cardHolderCache.resolve(trimmedIdentifier)
+            .orElseThrow(() -> new UnknownCardException(HttpStatus.NOT_FOUND));
 
+        Set<Long> areaIds = activePermissions.activeAreaIds(user.id());
         if (areaIds.isEmpty()) {
             return List.of();
         }
@@ -151,11 +164,4 @@ public class AccessAreaService {
             .map(this::toDto)
             .collect(Collectors.toList());
     }
-
-    private boolean isPermissionActive(UserPermission permission) {
-        LocalDate today = LocalDate.now();
-        return !permission.getValidFrom().isAfter(today)
-            && !permission.getValidUntil().isBefore(today)
-            && "ATIVA".equalsIgnoreCase(permission.getStatus());
-    }
 }
@@ -0,0 +1,40 @@
+package com.sysaccessos.backend.area;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Locks listrados por área: serializam as transições de ocupação de uma mesma
+ * sala sem bloquear movimentações das demais.
+ */
+@Component
+public class AreaOccupancyLocks {
+
+    private final ReentrantLock[] stripes;
+
+    public AreaOccupancyLocks(@Value("${sysaccessos.areas.lock-stripes:64}") int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withAreaLock(Long areaId, Supplier<T> action) {
+        ReentrantLock lock = stripeFor(areaId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock stripeFor(Long areaId) {
+        int hash = Long.hashCode(areaId);
+        hash ^= (hash >>> 16);
+        return stripes[hash & (stripes.length - 1)];
+    }
+}
@@ -1,5 +1,6 @@
 package com.sysaccessos.backend.config;
 
+import com.sysaccessos.backend.user.RegisteredCardFilter;
 import com.sysaccessos.backend.user.User;
 import com.sysaccessos.backend.user.UserRepository;
 import com.sysaccessos.backend.user.UserRole;
@@ -17,10 +18,13 @@ public class DataInitializer implements CommandLineRunner {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final RegisteredCardFilter cardFilter;
 
-    public DataInitializer(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public DataInitializer(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                           RegisteredCardFilter cardFilter) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.cardFilter = cardFilter;
     }
 
     @Override
@@ -39,6 +43,7 @@ public class DataInitializer implements CommandLineRunner {
         user.setCardIdentifier("99999999");
         user.setPassword(passwordEncoder.encode("admin123"));
 
+        cardFilter.register(user.getCardIdentifier());
         userRepository.save(user);
         LOGGER.info("Usuário padrão criado: {}", defaultEmail);
     }
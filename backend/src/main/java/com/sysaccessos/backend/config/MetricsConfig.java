@@ -0,0 +1,85 @@
+package com.sysaccessos.backend.config;
+
+import com.sysaccessos.backend.ai.RecommendationCache;
+import com.sysaccessos.backend.history.AccessHistoryWriter;
+import com.sysaccessos.backend.live.LiveEventBroadcaster;
+import com.sysaccessos.backend.user.CardHolderCache;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Habilita {@code @Timed} nos serviços do caminho de decisão de acesso.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder cardHolderCacheMetrics(CardHolderCache cache) {
+        return registry -> {
+            Gauge.builder("sysaccessos.cache.cards.size", cache, c -> c.stats().getSize())
+                .register(registry);
+            FunctionCounter.builder("sysaccessos.cache.cards.requests", cache, c -> c.stats().getHits())
+                .tag("outcome", "hit").register(registry);
+            FunctionCounter.builder("sysaccessos.cache.cards.requests", cache, c -> c.stats().getMisses())
+                .tag("outcome", "miss").register(registry);
+            FunctionCounter.builder("sysaccessos.cache.cards.requests", cache, c -> c.stats().getRejections())
+                .tag("outcome", "rejected").register(registry);
+            FunctionCounter.builder("sysaccessos.cache.cards.evictions", cache, c -> c.stats().getEvictions())
+                .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder recommendationCacheMetrics(RecommendationCache cache) {
+        return registry -> {
+            Gauge.builder("sysaccessos.cache.recommendations.size", cache, c -> c.stats().getSize())
+                .register(registry);
+            FunctionCounter.builder("sysaccessos.cache.recommendations.requests", cache, c -> c.stats().getHits())
+                .tag("outcome", "hit").register(registry);
+            FunctionCounter.builder("sysaccessos.cache.recommendations.requests", cache, c -> c.stats().getMisses())
+                .tag("outcome", "miss").register(registry);
+            FunctionCounter.builder("sysaccessos.cache.recommendations.requests", cache, c -> c.stats().getCoalesced())
+                .tag("outcome", "coalesced").register(registry);
+            FunctionCounter.builder("sysaccessos.cache.recommendations.evictions", cache, c -> c.stats().getEvictions())
+                .register(registry);
+            FunctionCounter.builder("sysaccessos.cache.recommendations.invalidations", cache,
+                    c -> c.stats().getInvalidations())
+                .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder accessHistoryWriterMetrics(AccessHistoryWriter writer) {
+        return registry -> {
+            Gauge.builder("sysaccessos.history.writer.queue", writer, AccessHistoryWriter::queueSize)
+                .description("Eventos de histórico aguardando gravação")
+                .register(registry);
+            FunctionCounter.builder("sysaccessos.history.writer.discarded", writer,
+                    AccessHistoryWriter::discardedCount)
+                .description("Eventos de histórico descartados por falharem mesmo gravados sozinhos")
+                .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder liveEventMetrics(LiveEventBroadcaster broadcaster) {
+        return registry -> {
+            Gauge.builder("sysaccessos.live.clients", broadcaster, LiveEventBroadcaster::clientCount)
+                .description("Clientes conectados ao fluxo ao vivo")
+                .register(registry);
+            FunctionCounter.builder("sysaccessos.live.dropped", broadcaster, LiveEventBroadcaster::droppedCount)
+                .description("Eventos ao vivo descartados por fila de cliente cheia")
+                .register(registry);
+        };
+    }
+}
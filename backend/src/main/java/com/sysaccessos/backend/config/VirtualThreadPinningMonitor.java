@@ -0,0 +1,72 @@
+package com.sysaccessos.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Diagnóstico de pinning no modo de threads virtuais: assina o evento JFR
+ * {@code jdk.VirtualThreadPinned} (JDK 21+) e registra onde uma thread virtual
+ * ficou presa à thread portadora, tipicamente um {@code synchronized} em volta de I/O.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Duration threshold;
+    private final int maxFrames;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+        @Value("${sysaccessos.virtual-threads.pinning-threshold:20ms}") Duration threshold,
+        @Value("${sysaccessos.virtual-threads.pinning-frames:8}") int maxFrames) {
+        this.threshold = threshold;
+        this.maxFrames = maxFrames;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (Runtime.version().feature() < 21) {
+            LOGGER.warn("spring.threads.virtual.enabled ativo, mas a JVM {} não suporta threads virtuais.",
+                Runtime.version());
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::logPinning);
+        stream.startAsync();
+        LOGGER.info("Monitor de pinning de threads virtuais ativo (limite {}).", threshold);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void logPinning(RecordedEvent event) {
+        String frames = event.getStackTrace() == null ? "(sem stack trace)" : event.getStackTrace().getFrames().stream()
+            .limit(maxFrames)
+            .map(VirtualThreadPinningMonitor::describe)
+            .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+        LOGGER.warn("Thread virtual presa à portadora por {} ms:{}", event.getDuration().toMillis(), frames);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+            + "(linha " + frame.getLineNumber() + ")";
+    }
+}
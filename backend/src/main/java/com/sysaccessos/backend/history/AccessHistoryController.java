@@ -1,12 +1,17 @@
 package com.sysaccessos.backend.history;
 
+import com.sysaccessos.backend.history.dto.AccessHistoryCountDto;
 import com.sysaccessos.backend.history.dto.AccessHistoryDto;
+import com.sysaccessos.backend.history.dto.AccessHistoryHistogramDto;
+import com.sysaccessos.backend.history.dto.AccessHistoryPageDto;
 import com.sysaccessos.backend.history.dto.AccessHistoryRequest;
+import com.sysaccessos.backend.history.dto.AccessHistorySearchCriteria;
 import jakarta.validation.Valid;
 import java.time.OffsetDateTime;
-import java.util.List;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,6 +21,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/history")
@@ -23,25 +29,76 @@ import org.springframework.web.bind.annotation.RestController;
 public class AccessHistoryController {
 
     private final AccessHistoryService historyService;
+    private final AccessHistoryExportService exportService;
+    private final AccessHistoryCountService countService;
 
-    public AccessHistoryController(AccessHistoryService historyService) {
+    public AccessHistoryController(AccessHistoryService historyService, AccessHistoryExportService exportService,
+                                   AccessHistoryCountService countService) {
         this.historyService = historyService;
+        this.exportService = exportService;
+        this.countService = countService;
     }
 
     @GetMapping
-    public List<AccessHistoryDto> list(
+    public AccessHistoryPageDto list(
         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime start,
-        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime end
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime end,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer size
     ) {
         if (start != null && end != null) {
-            return historyService.findBetween(start, end);
+            return historyService.findBetween(start, end, cursor, size);
         }
-        return historyService.findAll();
+        return historyService.findPage(cursor, size);
     }
 
     @GetMapping("/user/{userId}")
-    public List<AccessHistoryDto> listByUser(@PathVariable Long userId) {
-        return historyService.findByUser(userId);
+    public AccessHistoryPageDto listByUser(
+        @PathVariable Long userId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer size
+    ) {
+        return historyService.findByUser(userId, cursor, size);
+    }
+
+    @GetMapping("/search")
+    public AccessHistoryPageDto search(
+        AccessHistorySearchCriteria criteria,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer size
+    ) {
+        return historyService.search(criteria, cursor, size);
+    }
+
+    @GetMapping("/count")
+    public AccessHistoryCountDto count(AccessHistorySearchCriteria criteria) {
+        return countService.count(criteria);
+    }
+
+    @GetMapping("/histogram")
+    public AccessHistoryHistogramDto histogram(
+        AccessHistorySearchCriteria criteria,
+        @RequestParam(defaultValue = "HOUR") HistogramBucket bucket,
+        @RequestParam(required = false) String zone
+    ) {
+        return countService.histogram(criteria, bucket, zone);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime start,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime end,
+        @RequestParam(required = false) Long userId,
+        @RequestParam(required = false) String format
+    ) {
+        AccessHistoryExportService.Format exportFormat = AccessHistoryExportService.parseFormat(format);
+        exportService.validate(start, end, userId);
+        StreamingResponseBody body = output -> exportService.export(start, end, userId, exportFormat, output);
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"historico-acessos." + exportFormat.getExtension() + "\"")
+            .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+            .body(body);
     }
 
     @PostMapping
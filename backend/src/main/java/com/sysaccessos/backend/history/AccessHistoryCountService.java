@@ -0,0 +1,146 @@
+package com.sysaccessos.backend.history;
+
+import com.sysaccessos.backend.history.dto.AccessHistoryCountDto;
+import com.sysaccessos.backend.history.dto.AccessHistoryHistogramDto;
+import com.sysaccessos.backend.history.dto.AccessHistorySearchCriteria;
+import com.sysaccessos.backend.history.dto.HistogramBucketDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Contagens e histogramas do histórico calculados no banco com {@code COUNT}/{@code GROUP BY},
+ * sem carregar registros. Os filtros são os da busca ({@link AccessHistorySpecifications#matching}),
+ * com períodos semiabertos ({@code start <= recordedAt < end}).
+ * <p>
+ * O histograma agrupa por quarto de hora de {@code recorded_at} e posiciona cada grupo pelo seu
+ * menor instante, lido pelo driver como qualquer outro: o resultado não depende do fuso em que
+ * o banco guarda a hora nem do fuso da JVM. Como os fusos diferem do UTC em múltiplos de quinze
+ * minutos, cada grupo cabe inteiro em um balde de qualquer fuso pedido.
+ */
+@Service
+public class AccessHistoryCountService {
+
+    private final AccessHistoryRepository historyRepository;
+    private final EntityManager entityManager;
+    private final ZoneId defaultZone;
+    private final int maxBuckets;
+
+    public AccessHistoryCountService(AccessHistoryRepository historyRepository, EntityManager entityManager,
+                                     Clock clock,
+                                     @Value("${sysaccessos.history.histogram.max-buckets:1000}") int maxBuckets) {
+        this.historyRepository = historyRepository;
+        this.entityManager = entityManager;
+        this.defaultZone = clock.getZone();
+        this.maxBuckets = maxBuckets;
+    }
+
+    @Transactional(readOnly = true)
+    public AccessHistoryCountDto count(AccessHistorySearchCriteria criteria) {
+        validateRange(criteria, false);
+        long count = historyRepository.count(AccessHistorySpecifications.matching(criteria));
+        return new AccessHistoryCountDto(criteria.getStart(), criteria.getEnd(), count);
+    }
+
+    @Transactional(readOnly = true)
+    public AccessHistoryHistogramDto histogram(AccessHistorySearchCriteria criteria, HistogramBucket bucket,
+                                               String zoneId) {
+        validateRange(criteria, true);
+        ZoneId zone = parseZone(zoneId);
+        ZonedDateTime start = criteria.getStart().atZoneSameInstant(zone);
+        ZonedDateTime end = criteria.getEnd().atZoneSameInstant(zone);
+
+        Map<Instant, Long> counts = new LinkedHashMap<>();
+        List<Instant> bounds = new ArrayList<>();
+        for (ZonedDateTime current = bucket.startOf(start); current.isBefore(end); current = bucket.next(current)) {
+            if (counts.size() >= maxBuckets) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Período muito longo para a granularidade informada.");
+            }
+            counts.put(current.toInstant(), 0L);
+            bounds.add(current.toInstant());
+        }
+
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<AccessHistory> root = query.from(AccessHistory.class);
+        Expression<OffsetDateTime> recordedAt = root.get("recordedAt");
+        Expression<Integer> minute = builder.function("minute", Integer.class, recordedAt);
+        query.multiselect(builder.least(recordedAt), builder.count(root))
+            .where(AccessHistorySpecifications.matching(criteria).toPredicate(root, query, builder))
+            .groupBy(
+                builder.function("year", Integer.class, recordedAt),
+                builder.function("month", Integer.class, recordedAt),
+                builder.function("day", Integer.class, recordedAt),
+                builder.function("hour", Integer.class, recordedAt),
+                builder.function("floor", Integer.class, builder.quot(minute, 15)));
+
+        long total = 0;
+        for (Tuple group : entityManager.createQuery(query).getResultList()) {
+            Instant first = group.get(0, OffsetDateTime.class).toInstant();
+            long count = group.get(1, Long.class);
+            counts.merge(bucketContaining(bounds, first), count, Long::sum);
+            total += count;
+        }
+
+        List<HistogramBucketDto> buckets = new ArrayList<>(counts.size());
+        counts.forEach((bucketStart, count) ->
+            buckets.add(new HistogramBucketDto(bucketStart.atZone(zone).toOffsetDateTime(), count)));
+        return new AccessHistoryHistogramDto(zone.getId(), bucket.name(), total, buckets);
+    }
+
+    private void validateRange(AccessHistorySearchCriteria criteria, boolean required) {
+        OffsetDateTime start = criteria.getStart();
+        OffsetDateTime end = criteria.getEnd();
+        if (required && (start == null || end == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe o início e o fim do período.");
+        }
+        if (start != null && end != null && !start.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Período inválido.");
+        }
+    }
+
+    private ZoneId parseZone(String zoneId) {
+        if (zoneId == null || zoneId.isBlank()) {
+            return defaultZone;
+        }
+        try {
+            return ZoneId.of(zoneId.trim());
+        } catch (DateTimeException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Fuso horário inválido.");
+        }
+    }
+
+    // Os grupos caem sempre dentro do período, então há um balde com início <= groupStart.
+    private static Instant bucketContaining(List<Instant> bounds, Instant groupStart) {
+        int low = 0;
+        int high = bounds.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (bounds.get(middle).isAfter(groupStart)) {
+                high = middle - 1;
+            } else {
+                low = middle;
+            }
+        }
+        return bounds.get(low);
+    }
+}
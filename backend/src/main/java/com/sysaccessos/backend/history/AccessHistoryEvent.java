@@ -0,0 +1,18 @@
+package com.sysaccessos.backend.history;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+
+/**
+ * Evento de acesso aguardando gravação em {@code access_history}. Os nomes do usuário e da
+ * área, já resolvidos no caminho de acesso, não são gravados: servem só ao fluxo ao vivo.
+ */
+public record AccessHistoryEvent(Long userId, String userName, Long areaId, String areaName, String eventType,
+                                 String result, String cardIdentifier, String notes, OffsetDateTime recordedAt) {
+
+    public static AccessHistoryEvent of(Clock clock, Long userId, String userName, Long areaId, String areaName,
+                                        String eventType, String result, String cardIdentifier, String notes) {
+        return new AccessHistoryEvent(userId, userName, areaId, areaName, eventType, result, cardIdentifier, notes,
+            OffsetDateTime.now(clock));
+    }
+}
@@ -0,0 +1,202 @@
+package com.sysaccessos.backend.history;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sysaccessos.backend.history.dto.AccessHistoryDto;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exportação do histórico em NDJSON ou CSV. As linhas são lidas de um cursor JDBC
+ * somente-avanço e escritas direto na resposta, uma a uma, com memória constante
+ * independentemente do período exportado.
+ */
+@Service
+public class AccessHistoryExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final String SELECT_SQL = "SELECT h.id, h.user_id, u.name AS user_name, h.area_id, "
+        + "a.name AS area_name, h.event_type, h.result, h.card_identifier, h.notes, h.recorded_at "
+        + "FROM access_history h "
+        + "JOIN users u ON u.id = h.user_id "
+        + "JOIN access_areas a ON a.id = h.area_id";
+
+    private static final String CSV_HEADER =
+        "id,userId,userName,areaId,areaName,eventType,result,cardIdentifier,notes,recordedAt\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public AccessHistoryExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public static Format parseFormat(String format) {
+        if (format == null || format.isBlank()) {
+            return Format.NDJSON;
+        }
+        try {
+            return Format.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato de exportação inválido.");
+        }
+    }
+
+    /**
+     * Valida os filtros antes de a resposta começar; erros depois disso já não alteram o status.
+     */
+    public void validate(OffsetDateTime start, OffsetDateTime end, Long userId) {
+        if ((start == null) != (end == null) || (start != null && !start.isBefore(end))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Período inválido.");
+        }
+        if (userId != null && userId < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Usuário inválido.");
+        }
+    }
+
+    public void export(OffsetDateTime start, OffsetDateTime end, Long userId, Format format, OutputStream output)
+        throws IOException {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        if (start != null && end != null) {
+            conditions.add("h.recorded_at >= ? AND h.recorded_at < ?");
+            args.add(Timestamp.from(start.toInstant()));
+            args.add(Timestamp.from(end.toInstant()));
+        }
+        if (userId != null) {
+            conditions.add("h.user_id = ?");
+            args.add(userId);
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY h.recorded_at, h.id");
+
+        Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        JsonGenerator json = null;
+        if (format == Format.NDJSON) {
+            json = objectMapper.createGenerator(writer);
+            // O separador entre documentos é a quebra de linha escrita após cada registro.
+            json.setRootValueSeparator(null);
+        } else {
+            writer.write(CSV_HEADER);
+        }
+        JsonGenerator ndjson = json;
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                // Integer.MIN_VALUE faz o Connector/J entregar as linhas uma a uma, sem carregar o resultado.
+                statement.setFetchSize(Integer.MIN_VALUE);
+                for (int i = 0; i < args.size(); i++) {
+                    statement.setObject(i + 1, args.get(i));
+                }
+                return statement;
+            }, (ResultSet resultSet) -> {
+                try {
+                    if (ndjson != null) {
+                        ndjson.writeObject(toDto(resultSet));
+                        ndjson.writeRaw('\n');
+                    } else {
+                        writeCsv(writer, toDto(resultSet));
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+    }
+
+    private AccessHistoryDto toDto(ResultSet resultSet) throws SQLException {
+        AccessHistoryDto dto = new AccessHistoryDto();
+        dto.setId(resultSet.getLong("id"));
+        dto.setUserId(resultSet.getLong("user_id"));
+        dto.setUserName(resultSet.getString("user_name"));
+        dto.setAreaId(resultSet.getLong("area_id"));
+        dto.setAreaName(resultSet.getString("area_name"));
+        dto.setEventType(resultSet.getString("event_type"));
+        dto.setResult(resultSet.getString("result"));
+        dto.setCardIdentifier(resultSet.getString("card_identifier"));
+        dto.setNotes(resultSet.getString("notes"));
+        dto.setRecordedAt(resultSet.getTimestamp("recorded_at").toInstant()
+            .atZone(ZoneId.systemDefault()).toOffsetDateTime());
+        return dto;
+    }
+
+    private void writeCsv(Writer writer, AccessHistoryDto dto) throws IOException {
+        writer.write(String.valueOf(dto.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(dto.getUserId()));
+        writer.write(',');
+        writer.write(csv(dto.getUserName()));
+        writer.write(',');
+        writer.write(String.valueOf(dto.getAreaId()));
+        writer.write(',');
+        writer.write(csv(dto.getAreaName()));
+        writer.write(',');
+        writer.write(csv(dto.getEventType()));
+        writer.write(',');
+        writer.write(csv(dto.getResult()));
+        writer.write(',');
+        writer.write(csv(dto.getCardIdentifier()));
+        writer.write(',');
+        writer.write(csv(dto.getNotes()));
+        writer.write(',');
+        writer.write(dto.getRecordedAt().toString());
+        writer.write('\n');
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,45 @@
+package com.sysaccessos.backend.history;
+
+import com.sysaccessos.backend.history.dto.AccessHistoryDto;
+import com.sysaccessos.backend.live.LiveEventBroadcaster;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publica no fluxo ao vivo os registros de histórico recém-gravados. Os nomes vêm no
+ * próprio evento, resolvidos no caminho de acesso: a thread de gravação não consulta
+ * cartões nem áreas.
+ */
+@Component
+public class AccessHistoryLiveFeed {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccessHistoryLiveFeed.class);
+
+    private final LiveEventBroadcaster broadcaster;
+
+    public AccessHistoryLiveFeed(LiveEventBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    void publish(List<AccessHistoryEvent> events) {
+        if (events.isEmpty() || !broadcaster.hasSubscribers()) {
+            return;
+        }
+        try {
+            for (AccessHistoryEvent event : events) {
+                broadcaster.publish(LiveEventBroadcaster.ACCESS, new AccessHistoryDto(null, event.userId(),
+                    event.userName(), event.areaId(), event.areaName(), event.eventType(), event.result(),
+                    event.cardIdentifier(), event.notes(), event.recordedAt()));
+            }
+        } catch (RuntimeException ex) {
+            // O fluxo ao vivo é acessório: falhas aqui não afetam a gravação do histórico.
+            LOGGER.warn("Falha ao publicar {} evento(s) de histórico ao vivo.", events.size(), ex);
+        }
+    }
+
+    void publish(AccessHistoryDto history) {
+        broadcaster.publish(LiveEventBroadcaster.ACCESS, history);
+    }
+}
@@ -0,0 +1,167 @@
+package com.sysaccessos.backend.history;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mantém as partições mensais de {@code access_history} (criadas pela migração V3):
+ * garante partições para os próximos meses, para que {@code p_future} fique sempre vazia,
+ * e, se houver retenção configurada (desligada por padrão), retira as partições além do
+ * horizonte. Com arquivamento ligado, a partição
+ * é trocada (EXCHANGE PARTITION, só metadados) para {@code access_history_archive_pAAAAMM}
+ * antes de ser removida; sem arquivamento, é simplesmente descartada.
+ * Em bancos sem particionamento a manutenção não faz nada.
+ */
+@Component
+public class AccessHistoryPartitionMaintenance {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccessHistoryPartitionMaintenance.class);
+
+    static final String ARCHIVE_PREFIX = "access_history_archive_";
+
+    private static final String FUTURE_PARTITION = "p_future";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean archive;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public AccessHistoryPartitionMaintenance(JdbcTemplate jdbcTemplate, Clock clock,
+                                             @Value("${sysaccessos.history.partitions.months-ahead:3}") int monthsAhead,
+                                             @Value("${sysaccessos.history.retention.months:0}") int retentionMonths,
+                                             @Value("${sysaccessos.history.retention.archive:true}") boolean archive) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archive = archive;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${sysaccessos.history.partitions.maintenance-cron:0 30 3 * * *}")
+    public void maintain() {
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            List<YearMonth> months = monthlyPartitions();
+            if (months.isEmpty()) {
+                return;
+            }
+            YearMonth current = YearMonth.now(clock);
+            addFuturePartitions(months.get(months.size() - 1), current.plusMonths(monthsAhead));
+            if (retentionMonths > 0) {
+                YearMonth horizon = current.minusMonths(retentionMonths);
+                for (YearMonth month : months) {
+                    if (month.isBefore(horizon)) {
+                        retire(month);
+                    }
+                }
+            }
+        } catch (DataAccessException ex) {
+            LOGGER.error("Falha na manutenção das partições do histórico.", ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Meses com partição própria, em ordem; vazio se a tabela não for particionada.
+     */
+    private List<YearMonth> monthlyPartitions() {
+        List<String> names;
+        try {
+            names = jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                    + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'access_history' "
+                    + "AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION",
+                String.class);
+        } catch (DataAccessException ex) {
+            LOGGER.debug("Particionamento do histórico indisponível neste banco.", ex);
+            return List.of();
+        }
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : names) {
+            if (!FUTURE_PARTITION.equals(name)) {
+                months.add(monthOf(name));
+            }
+        }
+        return months;
+    }
+
+    private void addFuturePartitions(YearMonth lastPartitioned, YearMonth until) {
+        if (!lastPartitioned.isBefore(until)) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("ALTER TABLE access_history REORGANIZE PARTITION ")
+            .append(FUTURE_PARTITION).append(" INTO (");
+        for (YearMonth month = lastPartitioned.plusMonths(1); !month.isAfter(until); month = month.plusMonths(1)) {
+            sql.append("PARTITION ").append(partitionName(month))
+                .append(" VALUES LESS THAN ('").append(month.plusMonths(1).atDay(1)).append("'), ");
+        }
+        sql.append("PARTITION ").append(FUTURE_PARTITION).append(" VALUES LESS THAN (MAXVALUE))");
+        jdbcTemplate.execute(sql.toString());
+        LOGGER.info("Partições do histórico criadas até {}.", until);
+    }
+
+    private void retire(YearMonth month) {
+        String partition = partitionName(month);
+        if (archive) {
+            String archiveTable = ARCHIVE_PREFIX + partition;
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + archiveTable + " LIKE access_history");
+            if (isPartitioned(archiveTable)) {
+                jdbcTemplate.execute("ALTER TABLE " + archiveTable + " REMOVE PARTITIONING");
+            }
+            if (isEmpty(archiveTable)) {
+                jdbcTemplate.execute("ALTER TABLE access_history EXCHANGE PARTITION " + partition
+                    + " WITH TABLE " + archiveTable);
+            } else if (!isEmpty("access_history PARTITION (" + partition + ")")) {
+                // Execução anterior interrompida com dados dos dois lados: não descarta nada.
+                LOGGER.warn("Partição {} e arquivo {} têm registros; retenção adiada.", partition, archiveTable);
+                return;
+            }
+            LOGGER.info("Partição {} do histórico arquivada em {}.", partition, archiveTable);
+        }
+        jdbcTemplate.execute("ALTER TABLE access_history DROP PARTITION " + partition);
+        LOGGER.info("Partição {} do histórico removida.", partition);
+    }
+
+    private boolean isPartitioned(String table) {
+        Integer partitions = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() "
+                + "AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL",
+            Integer.class, table);
+        return partitions != null && partitions > 0;
+    }
+
+    private boolean isEmpty(String source) {
+        return jdbcTemplate.queryForList("SELECT 1 FROM " + source + " LIMIT 1").isEmpty();
+    }
+
+    static String partitionName(YearMonth month) {
+        return String.format("p%04d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    static YearMonth monthOf(String partitionName) {
+        return YearMonth.of(Integer.parseInt(partitionName.substring(1, 5)),
+            Integer.parseInt(partitionName.substring(5, 7)));
+    }
+}
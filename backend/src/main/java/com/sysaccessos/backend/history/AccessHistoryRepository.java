@@ -1,14 +1,40 @@
 package com.sysaccessos.backend.history;
 
+import com.sysaccessos.backend.history.dto.AccessHistoryDto;
 import java.time.OffsetDateTime;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface AccessHistoryRepository extends JpaRepository<AccessHistory, Long> {
+public interface AccessHistoryRepository extends JpaRepository<AccessHistory, Long>,
+    JpaSpecificationExecutor<AccessHistory> {
 
-    List<AccessHistory> findByRecordedAtBetweenOrderByRecordedAtDesc(OffsetDateTime start, OffsetDateTime end);
+    // Projeção direta no DTO: uma única consulta por página, sem carregar usuário e área por linha.
+    String SELECT_DTO = "select new com.sysaccessos.backend.history.dto.AccessHistoryDto("
+        + "h.id, u.id, u.name, a.id, a.name, h.eventType, h.result, h.cardIdentifier, h.notes, h.recordedAt) "
+        + "from AccessHistory h join h.user u join h.area a ";
 
-    List<AccessHistory> findAllByOrderByRecordedAtDesc();
+    // Paginação por chave (recordedAt, id): cada página parte do último registro entregue,
+    // com custo independente da profundidade. O Pageable só limita a quantidade de linhas.
+    // O "recordedAt <=" na frente deixa a condição usável como faixa de índice; só o OR não seria.
+    String AFTER_CURSOR = "h.recordedAt <= :cursorAt and (h.recordedAt < :cursorAt or h.id < :cursorId)";
+    String NEWEST_FIRST = " order by h.recordedAt desc, h.id desc";
 
-    List<AccessHistory> findByUserIdOrderByRecordedAtDesc(Long userId);
+    @Query(SELECT_DTO + "where " + AFTER_CURSOR + NEWEST_FIRST)
+    List<AccessHistoryDto> findPage(@Param("cursorAt") OffsetDateTime cursorAt, @Param("cursorId") long cursorId,
+                                    Pageable pageable);
+
+    @Query(SELECT_DTO + "where h.recordedAt >= :start and h.recordedAt < :end and " + AFTER_CURSOR + NEWEST_FIRST)
+    List<AccessHistoryDto> findPageBetween(@Param("start") OffsetDateTime start, @Param("end") OffsetDateTime end,
+                                           @Param("cursorAt") OffsetDateTime cursorAt,
+                                           @Param("cursorId") long cursorId, Pageable pageable);
+
+    // Filtra pela coluna user_id do histórico (e não por users.id), para o índice (user_id, recorded_at).
+    @Query(SELECT_DTO + "where h.user.id = :userId and " + AFTER_CURSOR + NEWEST_FIRST)
+    List<AccessHistoryDto> findPageByUser(@Param("userId") Long userId,
+                                          @Param("cursorAt") OffsetDateTime cursorAt,
+                                          @Param("cursorId") long cursorId, Pageable pageable);
 }
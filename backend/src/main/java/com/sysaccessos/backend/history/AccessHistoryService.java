@@ -2,13 +2,26 @@ package com.sysaccessos.backend.history;
 
 import com.sysaccessos.backend.area.AccessArea;
 import com.sysaccessos.backend.area.AccessAreaRepository;
+import com.sysaccessos.backend.config.AfterCommit;
 import com.sysaccessos.backend.history.dto.AccessHistoryDto;
+import com.sysaccessos.backend.history.dto.AccessHistoryPageDto;
 import com.sysaccessos.backend.history.dto.AccessHistoryRequest;
+import com.sysaccessos.backend.history.dto.AccessHistorySearchCriteria;
 import com.sysaccessos.backend.user.User;
 import com.sysaccessos.backend.user.UserRepository;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,39 +30,93 @@ import org.springframework.web.server.ResponseStatusException;
 @Service
 public class AccessHistoryService {
 
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("recordedAt"), Sort.Order.desc("id"));
+
     private final AccessHistoryRepository historyRepository;
     private final UserRepository userRepository;
     private final AccessAreaRepository areaRepository;
+    private final AreaUsageRollups rollups;
+    private final UserAreaStats userAreaStats;
+    private final HistoryArchive archive;
+    private final AccessHistoryLiveFeed liveFeed;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
     public AccessHistoryService(AccessHistoryRepository historyRepository, UserRepository userRepository,
-                                AccessAreaRepository areaRepository) {
+                                AccessAreaRepository areaRepository, AreaUsageRollups rollups,
+                                UserAreaStats userAreaStats,
+                                HistoryArchive archive, AccessHistoryLiveFeed liveFeed,
+                                @Value("${sysaccessos.history.page.default-size:50}") int defaultPageSize,
+                                @Value("${sysaccessos.history.page.max-size:200}") int maxPageSize) {
         this.historyRepository = historyRepository;
         this.userRepository = userRepository;
         this.areaRepository = areaRepository;
+        this.rollups = rollups;
+        this.userAreaStats = userAreaStats;
+        this.archive = archive;
+        this.liveFeed = liveFeed;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     @Transactional(readOnly = true)
-    public List<AccessHistoryDto> findAll() {
-        return historyRepository.findAllByOrderByRecordedAtDesc().stream()
-            .map(this::toDto)
-            .collect(Collectors.toList());
+    public AccessHistoryPageDto findPage(String cursor, Integer size) {
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        int limit = pageSize(size);
+        List<AccessHistoryDto> rows = historyRepository.findPage(after.recordedAt(), after.id(),
+            PageRequest.ofSize(limit + 1));
+        return toPage(withArchived(rows, after, null, null, null, limit), limit);
     }
 
     @Transactional(readOnly = true)
-    public List<AccessHistoryDto> findBetween(OffsetDateTime start, OffsetDateTime end) {
-        return historyRepository.findByRecordedAtBetweenOrderByRecordedAtDesc(start, end).stream()
-            .map(this::toDto)
-            .collect(Collectors.toList());
+    public AccessHistoryPageDto findBetween(OffsetDateTime start, OffsetDateTime end, String cursor, Integer size) {
+        // Período semiaberto [start, end), o mesmo da busca, da contagem e da exportação.
+        if (!start.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Período inválido.");
+        }
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        int limit = pageSize(size);
+        List<AccessHistoryDto> rows = historyRepository.findPageBetween(start, end, after.recordedAt(), after.id(),
+            PageRequest.ofSize(limit + 1));
+        return toPage(withArchived(rows, after, start, end, null, limit), limit);
     }
 
     @Transactional(readOnly = true)
-    public List<AccessHistoryDto> findByUser(Long userId) {
+    public AccessHistoryPageDto findByUser(Long userId, String cursor, Integer size) {
         if (userId == null || userId < 1) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Usuário inválido.");
         }
-        return historyRepository.findByUserIdOrderByRecordedAtDesc(userId).stream()
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        int limit = pageSize(size);
+        List<AccessHistoryDto> rows = historyRepository.findPageByUser(userId, after.recordedAt(), after.id(),
+            PageRequest.ofSize(limit + 1));
+        return toPage(withArchived(rows, after, null, null, userId, limit), limit);
+    }
+
+    /**
+     * Busca paginada com qualquer combinação de filtros, aplicados no banco. O período é
+     * semiaberto, como em {@link AccessHistoryCountService}.
+     */
+    @Transactional(readOnly = true)
+    public AccessHistoryPageDto search(AccessHistorySearchCriteria criteria, String cursor, Integer size) {
+        if (criteria.getStart() != null && criteria.getEnd() != null && !criteria.getStart().isBefore(criteria.getEnd())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Período inválido.");
+        }
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        int limit = pageSize(size);
+        Specification<AccessHistory> specification = Specification.allOf(
+            AccessHistorySpecifications.fetchUserAndArea(),
+            AccessHistorySpecifications.matching(criteria),
+            AccessHistorySpecifications.after(after)
+        );
+        List<AccessHistoryDto> rows = historyRepository.findBy(specification, query -> query
+                .sortBy(NEWEST_FIRST)
+                .limit(limit + 1)
+                .all())
+            .stream()
             .map(this::toDto)
-            .collect(Collectors.toList());
+            .toList();
+        return toPage(rows, limit);
     }
 
     @Transactional
@@ -67,7 +134,68 @@ public class AccessHistoryService {
         history.setCardIdentifier(request.getCardIdentifier());
         history.setNotes(request.getNotes());
         AccessHistory saved = historyRepository.save(history);
-        return toDto(saved);
+        List<AccessHistoryEvent> events = List.of(new AccessHistoryEvent(user.getId(), user.getName(),
+            area.getId(), area.getName(), saved.getEventType(), saved.getResult(), saved.getCardIdentifier(),
+            saved.getNotes(), saved.getRecordedAt()));
+        rollups.record(events);
+        userAreaStats.record(events);
+        AccessHistoryDto dto = toDto(saved);
+        AfterCommit.run(() -> liveFeed.publish(dto));
+        return dto;
+    }
+
+    private int pageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tamanho de página inválido.");
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    /**
+     * Completa a página com registros do arquivo frio. Se a página do banco já está cheia
+     * com registros mais novos que tudo o que foi arquivado, o arquivo não é lido; senão
+     * as duas fontes são intercaladas na mesma ordem (recordedAt, id) do cursor.
+     */
+    private List<AccessHistoryDto> withArchived(List<AccessHistoryDto> rows, HistoryCursor after,
+                                                OffsetDateTime start, OffsetDateTime end, Long userId, int limit) {
+        Instant newestArchived = archive.newest();
+        if (newestArchived == null
+            || (rows.size() > limit && rows.get(limit).getRecordedAt().toInstant().isAfter(newestArchived))) {
+            return rows;
+        }
+        List<ArchivedHistoryRow> archived = archive.newestFirst(after, start == null ? null : start.toInstant(),
+            end == null ? null : end.toInstant(), userId, limit + 1);
+        if (archived.isEmpty()) {
+            return rows;
+        }
+        Map<Long, String> userNames = new HashMap<>();
+        userRepository.findAllById(archived.stream().map(ArchivedHistoryRow::userId).collect(Collectors.toSet()))
+            .forEach(user -> userNames.put(user.getId(), user.getName()));
+        Map<Long, String> areaNames = new HashMap<>();
+        areaRepository.findAllById(archived.stream().map(ArchivedHistoryRow::areaId).collect(Collectors.toSet()))
+            .forEach(area -> areaNames.put(area.getId(), area.getName()));
+
+        List<AccessHistoryDto> merged = new ArrayList<>(rows);
+        for (ArchivedHistoryRow row : archived) {
+            merged.add(new AccessHistoryDto(row.id(), row.userId(), userNames.get(row.userId()), row.areaId(),
+                areaNames.get(row.areaId()), row.eventType(), row.result(), row.cardIdentifier(), row.notes(),
+                row.recordedAt().atZone(ZoneId.systemDefault()).toOffsetDateTime()));
+        }
+        merged.sort(Comparator.comparing((AccessHistoryDto dto) -> dto.getRecordedAt().toInstant())
+            .thenComparing(AccessHistoryDto::getId)
+            .reversed());
+        return merged.size() > limit + 1 ? merged.subList(0, limit + 1) : merged;
+    }
+
+    // A consulta traz um registro a mais que o limite só para saber se há próxima página.
+    private AccessHistoryPageDto toPage(List<AccessHistoryDto> rows, int limit) {
+        boolean hasMore = rows.size() > limit;
+        List<AccessHistoryDto> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? HistoryCursor.after(items.get(limit - 1)).encode() : null;
+        return new AccessHistoryPageDto(List.copyOf(items), nextCursor);
     }
 
     private AccessHistoryDto toDto(AccessHistory history) {
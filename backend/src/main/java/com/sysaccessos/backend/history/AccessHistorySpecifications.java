@@ -0,0 +1,93 @@
+package com.sysaccessos.backend.history;
+
+import com.sysaccessos.backend.history.dto.AccessHistorySearchCriteria;
+import jakarta.persistence.criteria.JoinType;
+import java.time.OffsetDateTime;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Filtros combináveis da busca de histórico. Filtros nulos ou em branco são ignorados.
+ */
+final class AccessHistorySpecifications {
+
+    private AccessHistorySpecifications() {
+    }
+
+    /**
+     * Carrega usuário e área na mesma consulta, para o mapeamento em DTO não disparar outras.
+     */
+    static Specification<AccessHistory> fetchUserAndArea() {
+        return (root, query, builder) -> {
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("user", JoinType.INNER);
+                root.fetch("area", JoinType.INNER);
+            }
+            return null;
+        };
+    }
+
+    static Specification<AccessHistory> userId(Long userId) {
+        return userId == null ? null : (root, query, builder) -> builder.equal(root.get("user").get("id"), userId);
+    }
+
+    static Specification<AccessHistory> areaId(Long areaId) {
+        return areaId == null ? null : (root, query, builder) -> builder.equal(root.get("area").get("id"), areaId);
+    }
+
+    static Specification<AccessHistory> result(String result) {
+        return isBlank(result) ? null : (root, query, builder) -> builder.equal(root.get("result"), result.trim());
+    }
+
+    static Specification<AccessHistory> eventType(String eventType) {
+        return isBlank(eventType) ? null
+            : (root, query, builder) -> builder.equal(root.get("eventType"), eventType.trim());
+    }
+
+    static Specification<AccessHistory> cardIdentifier(String cardIdentifier) {
+        return isBlank(cardIdentifier) ? null
+            : (root, query, builder) -> builder.equal(root.get("cardIdentifier"), cardIdentifier.trim());
+    }
+
+    static Specification<AccessHistory> recordedFrom(OffsetDateTime start) {
+        return start == null ? null
+            : (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("recordedAt"), start);
+    }
+
+    static Specification<AccessHistory> recordedBefore(OffsetDateTime end) {
+        return end == null ? null : (root, query, builder) -> builder.lessThan(root.get("recordedAt"), end);
+    }
+
+    /**
+     * Todos os filtros da busca, com período semiaberto ({@code start <= recordedAt < end}); a
+     * mesma combinação serve à busca paginada, à contagem e ao histograma.
+     */
+    static Specification<AccessHistory> matching(AccessHistorySearchCriteria criteria) {
+        return Specification.allOf(
+            userId(criteria.getUserId()),
+            areaId(criteria.getAreaId()),
+            result(criteria.getResult()),
+            eventType(criteria.getEventType()),
+            cardIdentifier(criteria.getCardIdentifier()),
+            recordedFrom(criteria.getStart()),
+            recordedBefore(criteria.getEnd())
+        );
+    }
+
+    /**
+     * Registros anteriores ao cursor na ordem (recordedAt, id) decrescente. O limite
+     * {@code recordedAt <= cursor} vem na frente para a condição servir de faixa de índice.
+     */
+    static Specification<AccessHistory> after(HistoryCursor cursor) {
+        return (root, query, builder) -> builder.and(
+            builder.lessThanOrEqualTo(root.get("recordedAt"), cursor.recordedAt()),
+            builder.or(
+                builder.lessThan(root.get("recordedAt"), cursor.recordedAt()),
+                builder.lessThan(root.get("id"), cursor.id())
+            )
+        );
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,336 @@
+package com.sysaccessos.backend.history;
+
+import com.sysaccessos.backend.config.AfterCommit;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Gravação assíncrona do histórico de acessos. As passagens de cartão apenas
+ * enfileiram o evento; uma thread dedicada grava os eventos em lotes JDBC.
+ * Com a fila cheia, quem chama grava o próprio evento (contrapressão) e, no
+ * desligamento, a fila é esvaziada antes de liberar o banco.
+ * <p>
+ * Falhas passageiras (conexão, bloqueio, banco fora do ar) regravam o mesmo lote com espera
+ * exponencial limitada, sem descartar nada; enquanto isso a fila enche e a contrapressão recai
+ * sobre quem chama. Só erros permanentes de dados ({@link NonTransientDataAccessException},
+ * p. ex. violação de integridade) dividem o lote ao meio até isolar os eventos que não gravam;
+ * estes são descartados com registro no log.
+ */
+@Component
+public class AccessHistoryWriter implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccessHistoryWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO access_history "
+        + "(user_id, area_id, event_type, result, card_identifier, notes, recorded_at) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AreaUsageRollups rollups;
+    private final UserAreaStats userAreaStats;
+    private final AccessHistoryLiveFeed liveFeed;
+    private final BlockingQueue<AccessHistoryEvent> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long offerTimeoutMillis;
+    private final long retryMaxBackoffMillis;
+    private final long shutdownTimeoutMillis;
+    private final AtomicLong discarded = new AtomicLong();
+    // Eventos aceitos pela fila (ou pela gravação de quem chama) e eventos já resolvidos,
+    // gravados ou descartados; awaitWritten espera o segundo alcançar o primeiro.
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong settled = new AtomicLong();
+
+    private final List<AccessHistoryEvent> pending = new ArrayList<>();
+
+    private volatile boolean running;
+    // No desligamento as falhas passageiras só são regravadas até este instante (System.nanoTime).
+    private volatile boolean stopping;
+    private volatile long stopDeadline;
+    private Thread worker;
+
+    public AccessHistoryWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               AreaUsageRollups rollups, UserAreaStats userAreaStats,
+                               AccessHistoryLiveFeed liveFeed,
+                               @Value("${sysaccessos.history.writer.queue-capacity:10000}") int queueCapacity,
+                               @Value("${sysaccessos.history.writer.batch-size:200}") int batchSize,
+                               @Value("${sysaccessos.history.writer.flush-interval-ms:200}") long flushIntervalMillis,
+                               @Value("${sysaccessos.history.writer.offer-timeout-ms:50}") long offerTimeoutMillis,
+                               @Value("${sysaccessos.history.writer.retry-max-backoff-ms:10000}") long retryMaxBackoffMillis,
+                               @Value("${sysaccessos.history.writer.shutdown-timeout-ms:30000}") long shutdownTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.rollups = rollups;
+        this.userAreaStats = userAreaStats;
+        this.liveFeed = liveFeed;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.retryMaxBackoffMillis = Math.max(retryMaxBackoffMillis, flushIntervalMillis);
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+    }
+
+    /**
+     * Enfileira o evento; dentro de uma transação, só após o commit.
+     */
+    public void enqueue(AccessHistoryEvent event) {
+        AfterCommit.run(() -> offer(event));
+    }
+
+    private void offer(AccessHistoryEvent event) {
+        accepted.incrementAndGet();
+        if (!running) {
+            writeSettling(event);
+            return;
+        }
+        try {
+            if (queue.offer(event, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+            try {
+                writeBatch(List.of(event));
+                settled.incrementAndGet();
+            } catch (RuntimeException ex) {
+                if (isPermanent(ex)) {
+                    discard(event, ex);
+                    settled.incrementAndGet();
+                    return;
+                }
+                // Banco indisponível com a fila cheia: espera vaga em vez de perder o evento.
+                queue.put(event);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            writeSettling(event);
+        }
+    }
+
+    private void writeSettling(AccessHistoryEvent event) {
+        try {
+            writeBatch(List.of(event));
+        } finally {
+            settled.incrementAndGet();
+        }
+    }
+
+    /**
+     * Grava os eventos em um único lote JDBC e soma-os aos contadores de uso e às estatísticas
+     * por usuário, na mesma transação;
+     * depois do commit, os eventos seguem para o fluxo ao vivo.
+     */
+    public void writeBatch(List<AccessHistoryEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (statement, event) -> {
+                statement.setLong(1, event.userId());
+                statement.setLong(2, event.areaId());
+                statement.setString(3, event.eventType());
+                statement.setString(4, event.result());
+                statement.setString(5, event.cardIdentifier());
+                statement.setString(6, event.notes());
+                statement.setTimestamp(7, Timestamp.from(event.recordedAt().toInstant()));
+            });
+            rollups.record(events);
+            userAreaStats.record(events);
+        });
+        liveFeed.publish(events);
+    }
+
+    /**
+     * Espera até {@code timeout} que os eventos enfileirados antes da chamada sejam gravados (ou
+     * descartados por erro permanente). Devolve {@code false} se o prazo vencer antes.
+     */
+    public boolean awaitWritten(Duration timeout) throws InterruptedException {
+        long target = accepted.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (settled.get() < target) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    public int queueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Eventos descartados desde a inicialização: os que falham sozinhos com erro permanente e os
+     * que o banco não aceitou até o fim do prazo de desligamento.
+     */
+    public long discardedCount() {
+        return discarded.get();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "access-history-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        stopDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMillis);
+        stopping = true;
+        running = false;
+        if (worker != null) {
+            try {
+                worker.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<AccessHistoryEvent> remaining = new ArrayList<>(pending);
+        pending.clear();
+        queue.drainTo(remaining);
+        List<AccessHistoryEvent> lost = new ArrayList<>();
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            lost.addAll(write(remaining.subList(from, Math.min(from + batchSize, remaining.size()))));
+        }
+        settled.addAndGet(remaining.size());
+        if (!lost.isEmpty()) {
+            discarded.addAndGet(lost.size());
+            LOGGER.error("Banco indisponível no desligamento: {} evento(s) de histórico não gravado(s): {}",
+                lost.size(), lost);
+        }
+        LOGGER.info("Fila de histórico esvaziada no desligamento ({} evento(s)).", remaining.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Para depois do servidor web, garantindo que as últimas requisições já enfileiraram.
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                if (pending.isEmpty() && !collect()) {
+                    continue;
+                }
+            } catch (InterruptedException ex) {
+                // O que já foi coletado fica em pending e é gravado por stop().
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            // Só sobra algo não gravado se o prazo de desligamento venceu; stop() tenta de novo.
+            List<AccessHistoryEvent> unwritten = write(new ArrayList<>(pending));
+            settled.addAndGet(pending.size() - unwritten.size());
+            pending.clear();
+            pending.addAll(unwritten);
+            if (!unwritten.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Grava o lote. Falhas passageiras regravam o mesmo lote com espera exponencial (do intervalo
+     * de flush até {@code retry-max-backoff-ms}); erros permanentes de dados dividem o lote ao
+     * meio até isolar os eventos que falham sozinhos, descartados e registrados no log. Devolve
+     * os eventos não gravados, o que só acontece depois de vencido o prazo de desligamento.
+     */
+    List<AccessHistoryEvent> write(List<AccessHistoryEvent> events) {
+        long backoffMillis = Math.max(flushIntervalMillis, 1);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                writeBatch(events);
+                return List.of();
+            } catch (RuntimeException ex) {
+                if (isPermanent(ex)) {
+                    if (events.size() == 1) {
+                        discard(events.get(0), ex);
+                        return List.of();
+                    }
+                    int middle = events.size() / 2;
+                    List<AccessHistoryEvent> unwritten = new ArrayList<>(write(events.subList(0, middle)));
+                    if (!unwritten.isEmpty()) {
+                        unwritten.addAll(events.subList(middle, events.size()));
+                        return unwritten;
+                    }
+                    return write(events.subList(middle, events.size()));
+                }
+                if (stopping && System.nanoTime() - stopDeadline >= 0) {
+                    return List.copyOf(events);
+                }
+                LOGGER.warn("Falha passageira ao gravar lote de {} evento(s) de histórico (tentativa {}); "
+                    + "nova tentativa em {} ms.", events.size(), attempt, backoffMillis, ex);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return List.copyOf(events);
+                }
+                backoffMillis = Math.min(backoffMillis * 2, retryMaxBackoffMillis);
+            }
+        }
+    }
+
+    // Conexão indisponível também é NonTransient no Spring, mas passa quando o banco volta.
+    static boolean isPermanent(RuntimeException ex) {
+        return ex instanceof NonTransientDataAccessException
+            && !(ex instanceof NonTransientDataAccessResourceException);
+    }
+
+    private void discard(AccessHistoryEvent event, RuntimeException ex) {
+        discarded.incrementAndGet();
+        LOGGER.error("Evento de histórico descartado por erro permanente: {}", event, ex);
+    }
+
+    /**
+     * Aguarda o primeiro evento e acumula até completar o lote ou vencer o intervalo de flush.
+     */
+    private boolean collect() throws InterruptedException {
+        AccessHistoryEvent first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return false;
+        }
+        pending.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (pending.size() < batchSize) {
+            queue.drainTo(pending, batchSize - pending.size());
+            long remaining = deadline - System.nanoTime();
+            if (pending.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            AccessHistoryEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            pending.add(next);
+        }
+        return true;
+    }
+}
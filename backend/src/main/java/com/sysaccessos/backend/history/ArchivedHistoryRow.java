@@ -0,0 +1,10 @@
+package com.sysaccessos.backend.history;
+
+import java.time.Instant;
+
+/**
+ * Registro de histórico lido de um segmento do arquivo frio.
+ */
+record ArchivedHistoryRow(long id, long userId, long areaId, String eventType, String result,
+                          String cardIdentifier, String notes, Instant recordedAt) {
+}
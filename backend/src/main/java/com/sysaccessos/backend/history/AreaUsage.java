@@ -0,0 +1,21 @@
+package com.sysaccessos.backend.history;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+/**
+ * Quantidade de acessos de um usuário a uma área, o acesso mais recente e a pontuação com
+ * decaimento exponencial válida nesse instante.
+ */
+public record AreaUsage(Long areaId, String areaName, Long accessCount, OffsetDateTime lastAccessAt,
+                        double decayScore) {
+
+    /**
+     * Pontuação decaída até {@code now}: cada meia-vida transcorrida desde o último acesso a reduz pela metade.
+     */
+    public double decayScoreAt(Instant now, Duration halfLife) {
+        long elapsed = Duration.between(lastAccessAt.toInstant(), now).toMillis();
+        return decayScore * Math.pow(0.5, Math.max(elapsed, 0) / (double) halfLife.toMillis());
+    }
+}
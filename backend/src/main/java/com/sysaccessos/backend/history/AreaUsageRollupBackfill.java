@@ -0,0 +1,137 @@
+package com.sysaccessos.backend.history;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Recalcula os contadores de {@link AreaUsageRollups} a partir de {@code access_history}.
+ * Roda sozinho na primeira inicialização com histórico e sem contadores, ou sob demanda.
+ * <p>
+ * Cada dia é refeito em uma transação: os baldes horários são apagados e recontados no
+ * próprio banco, hora a hora, e o balde diário é refeito somando os horários. Só horas já
+ * encerradas são recontadas, então a gravação ao vivo da hora corrente não é afetada e a
+ * operação pode ser repetida. O período começa no registro mais antigo ainda em
+ * {@code access_history}: os contadores de meses já arquivados são mantidos.
+ */
+@Component
+public class AreaUsageRollupBackfill {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AreaUsageRollupBackfill.class);
+
+    private static final String DELETE_HOURS_SQL = "DELETE FROM area_usage_rollups "
+        + "WHERE granularity = 'HOUR' AND bucket_start >= ? AND bucket_start < ?";
+
+    private static final String INSERT_HOUR_SQL = "INSERT INTO area_usage_rollups "
+        + "(granularity, bucket_start, area_id, event_type, result, event_count) "
+        + "SELECT 'HOUR', ?, area_id, event_type, result, COUNT(*) FROM access_history "
+        + "WHERE recorded_at >= ? AND recorded_at < ? GROUP BY area_id, event_type, result";
+
+    private static final String DELETE_DAY_SQL = "DELETE FROM area_usage_rollups "
+        + "WHERE granularity = 'DAY' AND bucket_start = ?";
+
+    private static final String INSERT_DAY_SQL = "INSERT INTO area_usage_rollups "
+        + "(granularity, bucket_start, area_id, event_type, result, event_count) "
+        + "SELECT 'DAY', ?, area_id, event_type, result, SUM(event_count) FROM area_usage_rollups "
+        + "WHERE granularity = 'HOUR' AND bucket_start >= ? AND bucket_start < ? "
+        + "GROUP BY area_id, event_type, result";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final ZoneId zone;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public AreaUsageRollupBackfill(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.zone = clock.getZone();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        boolean hasHistory = !jdbcTemplate.queryForList("SELECT 1 FROM access_history LIMIT 1").isEmpty();
+        boolean hasRollups = !jdbcTemplate.queryForList("SELECT 1 FROM area_usage_rollups LIMIT 1").isEmpty();
+        if (hasHistory && !hasRollups) {
+            start(null, null);
+        }
+    }
+
+    /**
+     * Inicia o recálculo em segundo plano; {@code from}/{@code to} nulos cobrem do registro mais
+     * antigo até hoje, e {@code from} anterior a esse registro é ajustado a ele. Retorna {@code false} se já houver um recálculo em andamento.
+     */
+    public boolean start(LocalDate from, LocalDate to) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                backfill(from, to);
+            } catch (RuntimeException ex) {
+                LOGGER.error("Falha no recálculo dos contadores de uso das áreas.", ex);
+            } finally {
+                running.set(false);
+            }
+        }, "area-usage-rollup-backfill");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private void backfill(LocalDate from, LocalDate to) {
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(recorded_at) FROM access_history", Timestamp.class);
+        if (oldest == null) {
+            return;
+        }
+        // Meses anteriores já saíram de access_history pela retenção: recontá-los zeraria os contadores.
+        LocalDate oldestDay = oldest.toInstant().atZone(zone).toLocalDate();
+        LocalDate firstDay = from == null || from.isBefore(oldestDay) ? oldestDay : from;
+        Instant currentHour = clock.instant().truncatedTo(ChronoUnit.HOURS);
+        LocalDate lastDay = to != null ? to : currentHour.atZone(zone).toLocalDate();
+
+        LOGGER.info("Recalculando contadores de uso das áreas de {} a {}.", firstDay, lastDay);
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            ZonedDateTime dayStart = day.atStartOfDay(zone);
+            if (!dayStart.toInstant().isBefore(currentHour)) {
+                break;
+            }
+            Instant dayEnd = day.plusDays(1).atStartOfDay(zone).toInstant();
+            Instant recountUntil = dayEnd.isBefore(currentHour) ? dayEnd : currentHour;
+            transactionTemplate.executeWithoutResult(status -> rebuildDay(dayStart.toInstant(), recountUntil, dayEnd));
+        }
+        LOGGER.info("Contadores de uso das áreas recalculados.");
+    }
+
+    private void rebuildDay(Instant dayStart, Instant recountUntil, Instant dayEnd) {
+        // Em fusos com deslocamento fracionário o dia não começa numa hora cheia.
+        Instant firstHour = dayStart.truncatedTo(ChronoUnit.HOURS);
+        jdbcTemplate.update(DELETE_HOURS_SQL, Timestamp.from(firstHour), Timestamp.from(recountUntil));
+        for (Instant hour = firstHour; hour.isBefore(recountUntil); hour = hour.plus(1, ChronoUnit.HOURS)) {
+            Timestamp hourStart = Timestamp.from(hour);
+            jdbcTemplate.update(INSERT_HOUR_SQL, hourStart, hourStart, Timestamp.from(hour.plus(1, ChronoUnit.HOURS)));
+        }
+        Timestamp day = Timestamp.from(dayStart);
+        jdbcTemplate.update(DELETE_DAY_SQL, day);
+        jdbcTemplate.update(INSERT_DAY_SQL, day, day, Timestamp.from(dayEnd));
+    }
+}
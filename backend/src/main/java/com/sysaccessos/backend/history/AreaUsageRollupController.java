@@ -0,0 +1,67 @@
+package com.sysaccessos.backend.history;
+
+import com.sysaccessos.backend.history.dto.AreaUsageRollupDto;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/history/rollups")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+public class AreaUsageRollupController {
+
+    private final AreaUsageRollups rollups;
+    private final AreaUsageRollupBackfill backfill;
+
+    public AreaUsageRollupController(AreaUsageRollups rollups, AreaUsageRollupBackfill backfill) {
+        this.rollups = rollups;
+        this.backfill = backfill;
+    }
+
+    @GetMapping
+    public List<AreaUsageRollupDto> series(
+        @RequestParam(defaultValue = "HOUR") RollupGranularity granularity,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime start,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime end,
+        @RequestParam(required = false) Long areaId,
+        @RequestParam(required = false) String eventType,
+        @RequestParam(required = false) String result
+    ) {
+        return rollups.series(granularity, start, end, areaId, eventType, result);
+    }
+
+    @GetMapping("/summary")
+    public List<AreaUsageRollupDto> summary(
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime start,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime end,
+        @RequestParam(required = false) Long areaId,
+        @RequestParam(required = false) String eventType,
+        @RequestParam(required = false) String result
+    ) {
+        return rollups.summary(start, end, areaId, eventType, result);
+    }
+
+    @PostMapping("/backfill")
+    public ResponseEntity<Void> backfill(
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Período inválido.");
+        }
+        if (!backfill.start(from, to)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Recálculo dos contadores já em andamento.");
+        }
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -0,0 +1,193 @@
+package com.sysaccessos.backend.history;
+
+import com.sysaccessos.backend.history.dto.AreaUsageRollupDto;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Contadores de uso por (área, tipo de evento, resultado) em baldes de hora e de dia.
+ * São incrementados na mesma transação que grava o histórico, então respondem
+ * agregações sem varrer {@code access_history}.
+ */
+@Component
+public class AreaUsageRollups {
+
+    private static final String UPSERT_SQL = "INSERT INTO area_usage_rollups "
+        + "(granularity, bucket_start, area_id, event_type, result, event_count) VALUES (?, ?, ?, ?, ?, ?) "
+        + "ON DUPLICATE KEY UPDATE event_count = event_count + VALUES(event_count)";
+
+    // Ordem fixa das chaves: gravações concorrentes travam as linhas na mesma sequência.
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::granularity)
+        .thenComparing(Key::bucketStart)
+        .thenComparingLong(Key::areaId)
+        .thenComparing(Key::eventType)
+        .thenComparing(Key::result);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ZoneId zone;
+    private final Duration maxHourlyRange;
+    private final Duration maxDailyRange;
+
+    public AreaUsageRollups(JdbcTemplate jdbcTemplate, Clock clock,
+                            @Value("${sysaccessos.history.rollups.max-hourly-range:31d}") Duration maxHourlyRange,
+                            @Value("${sysaccessos.history.rollups.max-daily-range:731d}") Duration maxDailyRange) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.zone = clock.getZone();
+        this.maxHourlyRange = maxHourlyRange;
+        this.maxDailyRange = maxDailyRange;
+    }
+
+    ZoneId zone() {
+        return zone;
+    }
+
+    /**
+     * Soma os eventos aos contadores; deve rodar na transação que grava esses eventos.
+     */
+    public void record(List<AccessHistoryEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Map<Key, Long> increments = new TreeMap<>(KEY_ORDER);
+        for (AccessHistoryEvent event : events) {
+            Instant recordedAt = event.recordedAt().toInstant();
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                Key key = new Key(granularity.name(), granularity.bucketOf(recordedAt, zone), event.areaId(),
+                    event.eventType(), event.result());
+                increments.merge(key, 1L, Long::sum);
+            }
+        }
+        List<Map.Entry<Key, Long>> rows = new ArrayList<>(increments.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (statement, row) -> {
+            Key key = row.getKey();
+            statement.setString(1, key.granularity());
+            statement.setTimestamp(2, Timestamp.from(key.bucketStart()));
+            statement.setLong(3, key.areaId());
+            statement.setString(4, key.eventType());
+            statement.setString(5, key.result());
+            statement.setLong(6, row.getValue());
+        });
+    }
+
+    /**
+     * Série de contadores dos baldes que começam no período.
+     */
+    public List<AreaUsageRollupDto> series(RollupGranularity granularity, OffsetDateTime start, OffsetDateTime end,
+                                           Long areaId, String eventType, String result) {
+        validateRange(start, end);
+        Duration limit = granularity == RollupGranularity.HOUR ? maxHourlyRange : maxDailyRange;
+        if (Duration.between(start, end).compareTo(limit) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Período muito longo para a granularidade informada.");
+        }
+        Instant from = granularity.bucketOf(start.toInstant(), zone);
+        StringBuilder sql = new StringBuilder("SELECT r.area_id, a.name, r.bucket_start, r.event_type, r.result, "
+            + "r.event_count FROM area_usage_rollups r JOIN access_areas a ON a.id = r.area_id "
+            + "WHERE r.granularity = ? AND r.bucket_start >= ? AND r.bucket_start < ?");
+        List<Object> args = new ArrayList<>(List.of(granularity.name(), Timestamp.from(from),
+            Timestamp.from(end.toInstant())));
+        appendFilters(sql, args, areaId, eventType, result);
+        sql.append(" ORDER BY r.bucket_start, r.area_id, r.event_type, r.result");
+        return jdbcTemplate.query(sql.toString(), (resultSet, rowNum) -> new AreaUsageRollupDto(
+            resultSet.getLong("area_id"),
+            resultSet.getString("name"),
+            resultSet.getTimestamp("bucket_start").toInstant().atZone(zone).toOffsetDateTime(),
+            resultSet.getString("event_type"),
+            resultSet.getString("result"),
+            resultSet.getLong("event_count")
+        ), args.toArray());
+    }
+
+    /**
+     * Totais do período por área, tipo e resultado: dias inteiros vêm dos contadores diários
+     * e as bordas, dos horários (precisão de uma hora).
+     */
+    public List<AreaUsageRollupDto> summary(OffsetDateTime start, OffsetDateTime end,
+                                            Long areaId, String eventType, String result) {
+        validateRange(start, end);
+        Instant from = RollupGranularity.HOUR.bucketOf(start.toInstant(), zone);
+        Instant to = end.toInstant();
+        Instant firstDay = RollupGranularity.DAY.bucketOf(from, zone);
+        if (firstDay.isBefore(from)) {
+            firstDay = firstDay.atZone(zone).plusDays(1).toInstant();
+        }
+        Instant lastDay = RollupGranularity.DAY.bucketOf(to, zone);
+
+        Map<SummaryKey, AreaUsageRollupDto> totals = new LinkedHashMap<>();
+        if (firstDay.isBefore(lastDay)) {
+            sum(totals, RollupGranularity.DAY, firstDay, lastDay, areaId, eventType, result);
+            sum(totals, RollupGranularity.HOUR, from, firstDay, areaId, eventType, result);
+            sum(totals, RollupGranularity.HOUR, lastDay, to, areaId, eventType, result);
+        } else {
+            sum(totals, RollupGranularity.HOUR, from, to, areaId, eventType, result);
+        }
+        return totals.values().stream()
+            .sorted(Comparator.comparing(AreaUsageRollupDto::getAreaId)
+                .thenComparing(AreaUsageRollupDto::getEventType)
+                .thenComparing(AreaUsageRollupDto::getResult))
+            .toList();
+    }
+
+    private void sum(Map<SummaryKey, AreaUsageRollupDto> totals, RollupGranularity granularity, Instant from,
+                     Instant to, Long areaId, String eventType, String result) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("SELECT r.area_id, a.name, r.event_type, r.result, "
+            + "SUM(r.event_count) AS total FROM area_usage_rollups r JOIN access_areas a ON a.id = r.area_id "
+            + "WHERE r.granularity = ? AND r.bucket_start >= ? AND r.bucket_start < ?");
+        List<Object> args = new ArrayList<>(List.of(granularity.name(), Timestamp.from(from), Timestamp.from(to)));
+        appendFilters(sql, args, areaId, eventType, result);
+        sql.append(" GROUP BY r.area_id, a.name, r.event_type, r.result");
+        jdbcTemplate.query(sql.toString(), resultSet -> {
+            SummaryKey key = new SummaryKey(resultSet.getLong("area_id"), resultSet.getString("event_type"),
+                resultSet.getString("result"));
+            long total = resultSet.getLong("total");
+            AreaUsageRollupDto dto = totals.computeIfAbsent(key, k -> new AreaUsageRollupDto(
+                k.areaId(), null, null, k.eventType(), k.result(), 0));
+            dto.setAreaName(resultSet.getString("name"));
+            dto.setCount(dto.getCount() + total);
+        }, args.toArray());
+    }
+
+    private void validateRange(OffsetDateTime start, OffsetDateTime end) {
+        if (start == null || end == null || !start.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Período inválido.");
+        }
+    }
+
+    private void appendFilters(StringBuilder sql, List<Object> args, Long areaId, String eventType, String result) {
+        if (areaId != null) {
+            sql.append(" AND r.area_id = ?");
+            args.add(areaId);
+        }
+        if (eventType != null && !eventType.isBlank()) {
+            sql.append(" AND r.event_type = ?");
+            args.add(eventType.trim());
+        }
+        if (result != null && !result.isBlank()) {
+            sql.append(" AND r.result = ?");
+            args.add(result.trim());
+        }
+    }
+
+    private record Key(String granularity, Instant bucketStart, long areaId, String eventType, String result) {
+    }
+
+    private record SummaryKey(long areaId, String eventType, String result) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.sysaccessos.backend.history;
+
+import java.time.DayOfWeek;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Tamanho dos baldes do histograma do histórico, alinhados ao fuso pedido; semanas começam na segunda-feira.
+ */
+public enum HistogramBucket {
+    HOUR,
+    DAY,
+    WEEK;
+
+    ZonedDateTime startOf(ZonedDateTime time) {
+        return switch (this) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.toLocalDate().atStartOfDay(time.getZone());
+            case WEEK -> time.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                .atStartOfDay(time.getZone());
+        };
+    }
+
+    ZonedDateTime next(ZonedDateTime bucketStart) {
+        return switch (this) {
+            case HOUR -> bucketStart.plusHours(1);
+            case DAY -> bucketStart.toLocalDate().plusDays(1).atStartOfDay(bucketStart.getZone());
+            case WEEK -> bucketStart.toLocalDate().plusWeeks(1).atStartOfDay(bucketStart.getZone());
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package com.sysaccessos.backend.history;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Arquivo frio do histórico: segmentos colunares comprimidos em disco local, um por mês,
+ * gerados pelo {@link HistoryArchiver} a partir das tabelas de arquivo da retenção.
+ * Os segmentos são mapeados em memória e consultados pelo {@link AccessHistoryService}
+ * depois dos registros que ainda estão no banco.
+ */
+@Component
+public class HistoryArchive {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HistoryArchive.class);
+
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    // Ordenados do mais recente para o mais antigo; substituídos por inteiro a cada novo segmento.
+    private volatile List<HistorySegment> segments = List.of();
+
+    public HistoryArchive(@Value("${sysaccessos.history.archive.directory:data/history-archive}") Path directory) {
+        this.directory = directory;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<HistorySegment> loaded = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    loaded.add(HistorySegment.open(file));
+                } catch (IOException | RuntimeException ex) {
+                    LOGGER.error("Segmento de histórico ignorado: {}", file, ex);
+                }
+            }
+        } catch (IOException ex) {
+            LOGGER.error("Falha ao listar o arquivo frio do histórico em {}.", directory, ex);
+        }
+        loaded.sort(Comparator.comparing(HistorySegment::newest).reversed());
+        segments = List.copyOf(loaded);
+        if (!loaded.isEmpty()) {
+            LOGGER.info("Arquivo frio do histórico: {} segmento(s) carregado(s).", loaded.size());
+        }
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    Path segmentPath(YearMonth month) {
+        return directory.resolve(String.format("history-%04d%02d%s", month.getYear(), month.getMonthValue(),
+            SEGMENT_SUFFIX));
+    }
+
+    synchronized void register(HistorySegment segment) {
+        List<HistorySegment> updated = new ArrayList<>(segments);
+        updated.removeIf(existing -> existing.path().equals(segment.path()));
+        updated.add(segment);
+        updated.sort(Comparator.comparing(HistorySegment::newest).reversed());
+        segments = List.copyOf(updated);
+    }
+
+    boolean isRegistered(Path path) {
+        return segments.stream().anyMatch(segment -> segment.path().equals(path));
+    }
+
+    boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    /**
+     * Instante do registro arquivado mais recente, ou {@code null} sem segmentos.
+     */
+    Instant newest() {
+        List<HistorySegment> current = segments;
+        return current.isEmpty() ? null : current.get(0).newest();
+    }
+
+    /**
+     * Até {@code limit} registros arquivados anteriores ao cursor, do mais recente para o
+     * mais antigo, opcionalmente restritos ao período semiaberto {@code [from, before)} e ao usuário.
+     */
+    List<ArchivedHistoryRow> newestFirst(HistoryCursor after, Instant from, Instant before, Long userId, int limit) {
+        List<ArchivedHistoryRow> rows = new ArrayList<>();
+        Instant cursor = after.recordedAt().toInstant();
+        for (HistorySegment segment : segments) {
+            if (rows.size() >= limit || (from != null && segment.newest().isBefore(from))) {
+                break;
+            }
+            if (segment.oldest().isAfter(cursor) || (before != null && !segment.oldest().isBefore(before))) {
+                continue;
+            }
+            segment.collectNewestFirst(after, from, before, userId, limit, rows);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,131 @@
+package com.sysaccessos.backend.history;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Converte as tabelas {@code access_history_archive_pAAAAMM}, deixadas pela retenção do
+ * {@link AccessHistoryPartitionMaintenance}, em segmentos do {@link HistoryArchive}.
+ * A tabela só é removida do MySQL se {@code drop-tables} estiver ligado (desligado por
+ * padrão, e então exige diretório absoluto) e depois que o segmento foi gravado,
+ * sincronizado em disco e aberto com o mesmo número de linhas.
+ */
+@Component
+public class HistoryArchiver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HistoryArchiver.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HistoryArchive archive;
+    private final boolean enabled;
+    private final boolean dropTables;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public HistoryArchiver(JdbcTemplate jdbcTemplate, HistoryArchive archive,
+                           @Value("${sysaccessos.history.archive.enabled:true}") boolean enabled,
+                           @Value("${sysaccessos.history.archive.drop-tables:false}") boolean dropTables) {
+        if (enabled && dropTables && !archive.directory().isAbsolute()) {
+            // Um caminho relativo depende do diretório de trabalho: o segmento pode não ser achado no próximo início.
+            throw new IllegalArgumentException(
+                "sysaccessos.history.archive.directory deve ser absoluto quando drop-tables estiver ligado.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.archive = archive;
+        this.enabled = enabled;
+        this.dropTables = dropTables;
+    }
+
+    @Scheduled(cron = "${sysaccessos.history.archive.cron:0 0 4 * * *}")
+    public void archiveTables() {
+        if (!enabled || !lock.tryLock()) {
+            return;
+        }
+        try {
+            List<String> tables;
+            try {
+                tables = jdbcTemplate.queryForList(
+                    "SELECT TABLE_NAME FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() "
+                        + "AND TABLE_NAME LIKE 'access\\_history\\_archive\\_p%' ORDER BY TABLE_NAME",
+                    String.class);
+            } catch (DataAccessException ex) {
+                LOGGER.debug("Tabelas de arquivo do histórico indisponíveis neste banco.", ex);
+                return;
+            }
+            for (String table : tables) {
+                try {
+                    archiveTable(table);
+                } catch (IOException | RuntimeException ex) {
+                    LOGGER.error("Falha ao gerar o segmento do histórico para {}.", table, ex);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void archiveTable(String table) throws IOException {
+        YearMonth month = AccessHistoryPartitionMaintenance.monthOf(
+            table.substring(AccessHistoryPartitionMaintenance.ARCHIVE_PREFIX.length()));
+        Path target = archive.segmentPath(month);
+        if (!dropTables && archive.isRegistered(target)) {
+            // Tabela mantida de uma execução anterior e já conferida com o segmento.
+            return;
+        }
+        Integer expected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+
+        if (!Files.exists(target)) {
+            Files.createDirectories(archive.directory());
+            try (HistorySegmentWriter writer = new HistorySegmentWriter(target)) {
+                write(table, writer);
+                writer.finish();
+            }
+        }
+        HistorySegment segment = HistorySegment.open(target);
+        if (expected == null || segment.rowCount() != expected) {
+            // Segmento de outra execução com conteúdo diferente da tabela: mantém a tabela para análise.
+            LOGGER.warn("Segmento {} tem {} linha(s) e a tabela {} tem {}; tabela mantida.",
+                target, segment.rowCount(), table, expected);
+            return;
+        }
+        archive.register(segment);
+        LOGGER.info("Tabela {} arquivada em {} ({} linha(s)).", table, target, expected);
+        if (dropTables) {
+            jdbcTemplate.execute("DROP TABLE " + table);
+        }
+    }
+
+    private void write(String table, HistorySegmentWriter writer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                "SELECT id, user_id, area_id, event_type, result, card_identifier, notes, recorded_at FROM "
+                    + table + " ORDER BY recorded_at, id",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Integer.MIN_VALUE faz o Connector/J entregar as linhas uma a uma, sem carregar o resultado.
+            statement.setFetchSize(Integer.MIN_VALUE);
+            return statement;
+        }, (ResultSet resultSet) -> {
+            try {
+                writer.add(resultSet.getLong("id"), resultSet.getLong("user_id"), resultSet.getLong("area_id"),
+                    resultSet.getString("event_type"), resultSet.getString("result"),
+                    resultSet.getString("card_identifier"), resultSet.getString("notes"),
+                    resultSet.getTimestamp("recorded_at").toInstant());
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+}
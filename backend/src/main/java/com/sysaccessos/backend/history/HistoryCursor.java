@@ -0,0 +1,46 @@
+package com.sysaccessos.backend.history;
+
+import com.sysaccessos.backend.history.dto.AccessHistoryDto;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Posição (recordedAt, id) do último registro entregue, serializada como token opaco
+ * para a próxima página. A primeira página parte de um cursor posterior a qualquer registro.
+ */
+record HistoryCursor(OffsetDateTime recordedAt, long id) {
+
+    // Limite do DATETIME do MySQL; nenhum registro é posterior a ele.
+    static final HistoryCursor FIRST = new HistoryCursor(
+        OffsetDateTime.of(9999, 12, 31, 0, 0, 0, 0, ZoneOffset.UTC), Long.MAX_VALUE);
+
+    static HistoryCursor after(AccessHistoryDto history) {
+        return new HistoryCursor(history.getRecordedAt(), history.getId());
+    }
+
+    static HistoryCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf('|');
+            Instant recordedAt = Instant.parse(value.substring(0, separator));
+            long id = Long.parseLong(value.substring(separator + 1));
+            return new HistoryCursor(recordedAt.atOffset(ZoneOffset.UTC), id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor de paginação inválido.");
+        }
+    }
+
+    String encode() {
+        String value = recordedAt.toInstant() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
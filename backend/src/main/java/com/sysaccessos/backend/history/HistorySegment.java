@@ -0,0 +1,303 @@
+package com.sysaccessos.backend.history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Segmento somente leitura do arquivo frio do histórico, mapeado em memória.
+ * Apenas cabeçalho, dicionários e índice de blocos ficam no heap; os blocos são
+ * descomprimidos direto do mapeamento quando a consulta alcança o intervalo deles.
+ *
+ * @see HistorySegmentWriter
+ */
+final class HistorySegment {
+
+    static final int MAGIC = 0x53414853;
+    static final int VERSION = 1;
+    static final int BLOCK_SIZE = 4096;
+
+    private final Path path;
+    private final MappedByteBuffer mapped;
+    private final int rowCount;
+    private final long minMicros;
+    private final long maxMicros;
+    private final long[] users;
+    private final long[] areas;
+    private final String[] cards;
+    private final String[] eventTypes;
+    private final String[] results;
+    private final BlockInfo[] blocks;
+    private final int blocksStart;
+
+    private HistorySegment(Path path, MappedByteBuffer mapped) throws IOException {
+        this.path = path;
+        this.mapped = mapped;
+        ByteBuffer header = mapped.duplicate();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Segmento de histórico inválido: " + path);
+        }
+        rowCount = header.getInt();
+        int blockCount = header.getInt();
+        minMicros = header.getLong();
+        maxMicros = header.getLong();
+        int rawDictionary = header.getInt();
+        int compressedDictionary = header.getInt();
+        Reader dictionary = new Reader(inflate(header.position(), compressedDictionary, rawDictionary));
+        header.position(header.position() + compressedDictionary);
+        users = dictionary.longs();
+        areas = dictionary.longs();
+        cards = dictionary.strings();
+        eventTypes = dictionary.strings();
+        results = dictionary.strings();
+        blocks = new BlockInfo[blockCount];
+        for (int i = 0; i < blockCount; i++) {
+            blocks[i] = new BlockInfo(header.getLong(), header.getLong(), header.getLong(), header.getLong(),
+                header.getInt(), header.getLong(), header.getInt(), header.getInt());
+        }
+        blocksStart = header.position();
+    }
+
+    static HistorySegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Segmento de histórico maior que 2 GB: " + path);
+            }
+            // O mapeamento continua válido depois que o canal é fechado.
+            return new HistorySegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    Instant oldest() {
+        return toInstant(minMicros);
+    }
+
+    Instant newest() {
+        return toInstant(maxMicros);
+    }
+
+    /**
+     * Acrescenta a {@code into}, do mais recente para o mais antigo, as linhas anteriores
+     * ao cursor dentro do período semiaberto {@code [from, before)} e, se informado, do
+     * usuário, até {@code into} ter {@code limit} linhas.
+     */
+    void collectNewestFirst(HistoryCursor after, Instant from, Instant before, Long userId, int limit,
+                            List<ArchivedHistoryRow> into) {
+        if (into.size() >= limit || rowCount == 0) {
+            return;
+        }
+        int userRef = -1;
+        if (userId != null) {
+            userRef = indexOf(users, userId);
+            if (userRef < 0) {
+                return;
+            }
+        }
+        long cursorMicros = toMicros(after.recordedAt().toInstant());
+        long cursorId = after.id();
+        long fromMicros = from == null ? Long.MIN_VALUE : toMicros(from);
+        long beforeMicros = before == null ? Long.MAX_VALUE : toMicros(before);
+
+        for (int b = blocks.length - 1; b >= 0; b--) {
+            BlockInfo info = blocks[b];
+            if (info.lastMicros() < fromMicros) {
+                return;
+            }
+            if (info.firstMicros() >= beforeMicros || !before(info.firstMicros(), info.firstId(), cursorMicros, cursorId)) {
+                continue;
+            }
+            Block block = decode(info);
+            for (int i = info.rows() - 1; i >= 0; i--) {
+                long micros = block.micros[i];
+                if (micros < fromMicros) {
+                    return;
+                }
+                if (micros >= beforeMicros || !before(micros, block.ids[i], cursorMicros, cursorId)) {
+                    continue;
+                }
+                if (userRef >= 0 && block.users[i] != userRef) {
+                    continue;
+                }
+                into.add(new ArchivedHistoryRow(block.ids[i], users[block.users[i]], areas[block.areas[i]],
+                    eventTypes[block.eventTypes[i]], results[block.results[i]], cards[block.cards[i]],
+                    block.notes[i], toInstant(micros)));
+                if (into.size() >= limit) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private Block decode(BlockInfo info) {
+        Reader reader = new Reader(inflate(blocksStart + (int) info.offset(), info.length(), info.rawLength()));
+        int rows = info.rows();
+        Block block = new Block(rows);
+        long previous = reader.varLong();
+        block.micros[0] = previous;
+        for (int i = 1; i < rows; i++) {
+            previous += reader.varLong();
+            block.micros[i] = previous;
+        }
+        previous = reader.zigZag();
+        block.ids[0] = previous;
+        for (int i = 1; i < rows; i++) {
+            previous += reader.zigZag();
+            block.ids[i] = previous;
+        }
+        reader.refs(block.users);
+        reader.refs(block.areas);
+        reader.refs(block.cards);
+        reader.refs(block.eventTypes);
+        reader.refs(block.results);
+        for (int i = 0; i < rows; i++) {
+            block.notes[i] = reader.string();
+        }
+        return block;
+    }
+
+    private byte[] inflate(int offset, int length, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(mapped.slice(offset, length));
+            byte[] raw = new byte[rawLength];
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                read += inflater.inflate(raw, read, rawLength - read);
+            }
+            if (read != rawLength) {
+                throw new IllegalStateException("Bloco truncado no segmento " + path);
+            }
+            return raw;
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException("Bloco corrompido no segmento " + path, ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static boolean before(long micros, long id, long cursorMicros, long cursorId) {
+        return micros < cursorMicros || (micros == cursorMicros && id < cursorId);
+    }
+
+    private static int indexOf(long[] values, long value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Sem passar por nanossegundos, que estouram um long para o cursor inicial (ano 9999).
+    static long toMicros(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+    }
+
+    private static Instant toInstant(long micros) {
+        return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+
+    record BlockInfo(long firstMicros, long firstId, long lastMicros, long lastId, int rows, long offset,
+                     int rawLength, int length) {
+    }
+
+    private static final class Block {
+
+        final long[] micros;
+        final long[] ids;
+        final int[] users;
+        final int[] areas;
+        final int[] cards;
+        final int[] eventTypes;
+        final int[] results;
+        final String[] notes;
+
+        Block(int rows) {
+            micros = new long[rows];
+            ids = new long[rows];
+            users = new int[rows];
+            areas = new int[rows];
+            cards = new int[rows];
+            eventTypes = new int[rows];
+            results = new int[rows];
+            notes = new String[rows];
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        long varLong() {
+            long value = 0;
+            int shift = 0;
+            while (true) {
+                byte current = bytes[position++];
+                value |= (long) (current & 0x7F) << shift;
+                if ((current & 0x80) == 0) {
+                    return value;
+                }
+                shift += 7;
+            }
+        }
+
+        long zigZag() {
+            long value = varLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        void refs(int[] into) {
+            for (int i = 0; i < into.length; i++) {
+                into[i] = (int) varLong();
+            }
+        }
+
+        String string() {
+            int length = (int) varLong();
+            if (length == 0) {
+                return null;
+            }
+            String value = new String(bytes, position, length - 1, StandardCharsets.UTF_8);
+            position += length - 1;
+            return value;
+        }
+
+        long[] longs() {
+            long[] values = new long[(int) varLong()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = zigZag();
+            }
+            return values;
+        }
+
+        String[] strings() {
+            String[] values = new String[(int) varLong()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = string();
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.sysaccessos.backend.history;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Grava um segmento do arquivo frio a partir de linhas em ordem crescente de
+ * (recordedAt, id). Cada bloco de {@link HistorySegment#BLOCK_SIZE} linhas é gravado
+ * coluna a coluna e comprimido com Deflate: instantes e ids em delta, usuários, áreas,
+ * cartões, tipos e resultados como índices de dicionário. Os blocos vão para um arquivo
+ * temporário; {@link #finish()} monta cabeçalho, dicionário e índice de blocos na frente
+ * e move o resultado para o destino de forma atômica.
+ */
+final class HistorySegmentWriter implements AutoCloseable {
+
+    private final Path target;
+    private final Path blocksFile;
+    private final OutputStream blocks;
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+
+    private final Dictionary<Long> users = new Dictionary<>();
+    private final Dictionary<Long> areas = new Dictionary<>();
+    private final Dictionary<String> cards = new Dictionary<>();
+    private final Dictionary<String> eventTypes = new Dictionary<>();
+    private final Dictionary<String> results = new Dictionary<>();
+
+    private final long[] micros = new long[HistorySegment.BLOCK_SIZE];
+    private final long[] ids = new long[HistorySegment.BLOCK_SIZE];
+    private final int[] userRefs = new int[HistorySegment.BLOCK_SIZE];
+    private final int[] areaRefs = new int[HistorySegment.BLOCK_SIZE];
+    private final int[] cardRefs = new int[HistorySegment.BLOCK_SIZE];
+    private final int[] eventTypeRefs = new int[HistorySegment.BLOCK_SIZE];
+    private final int[] resultRefs = new int[HistorySegment.BLOCK_SIZE];
+    private final String[] notes = new String[HistorySegment.BLOCK_SIZE];
+    private int buffered;
+
+    private final List<HistorySegment.BlockInfo> index = new ArrayList<>();
+    private long blocksLength;
+    private int rowCount;
+    private long lastMicros = Long.MIN_VALUE;
+    private long lastId = Long.MIN_VALUE;
+
+    HistorySegmentWriter(Path target) throws IOException {
+        this.target = target;
+        this.blocksFile = target.resolveSibling(target.getFileName() + ".blocks");
+        this.blocks = Files.newOutputStream(blocksFile);
+    }
+
+    void add(long id, long userId, long areaId, String eventType, String result, String cardIdentifier,
+             String note, Instant recordedAt) throws IOException {
+        long recordedMicros = HistorySegment.toMicros(recordedAt);
+        if (recordedMicros < lastMicros || (recordedMicros == lastMicros && id <= lastId)) {
+            throw new IllegalArgumentException("Linhas do segmento fora de ordem (id " + id + ").");
+        }
+        lastMicros = recordedMicros;
+        lastId = id;
+        micros[buffered] = recordedMicros;
+        ids[buffered] = id;
+        userRefs[buffered] = users.ref(userId);
+        areaRefs[buffered] = areas.ref(areaId);
+        cardRefs[buffered] = cards.ref(cardIdentifier);
+        eventTypeRefs[buffered] = eventTypes.ref(eventType);
+        resultRefs[buffered] = results.ref(result);
+        notes[buffered] = note;
+        buffered++;
+        rowCount++;
+        if (buffered == HistorySegment.BLOCK_SIZE) {
+            flushBlock();
+        }
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Conclui o segmento e o publica no destino.
+     */
+    void finish() throws IOException {
+        if (buffered > 0) {
+            flushBlock();
+        }
+        blocks.close();
+
+        ByteArrayOutputStream dictionary = new ByteArrayOutputStream();
+        writeLongs(dictionary, users.values());
+        writeLongs(dictionary, areas.values());
+        writeStrings(dictionary, cards.values());
+        writeStrings(dictionary, eventTypes.values());
+        writeStrings(dictionary, results.values());
+        byte[] rawDictionary = dictionary.toByteArray();
+        byte[] compressedDictionary = compress(rawDictionary);
+
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(header);
+            out.writeInt(HistorySegment.MAGIC);
+            out.writeInt(HistorySegment.VERSION);
+            out.writeInt(rowCount);
+            out.writeInt(index.size());
+            out.writeLong(index.isEmpty() ? 0 : index.get(0).firstMicros());
+            out.writeLong(index.isEmpty() ? 0 : index.get(index.size() - 1).lastMicros());
+            out.writeInt(rawDictionary.length);
+            out.writeInt(compressedDictionary.length);
+            out.write(compressedDictionary);
+            for (HistorySegment.BlockInfo block : index) {
+                out.writeLong(block.firstMicros());
+                out.writeLong(block.firstId());
+                out.writeLong(block.lastMicros());
+                out.writeLong(block.lastId());
+                out.writeInt(block.rows());
+                out.writeLong(block.offset());
+                out.writeInt(block.rawLength());
+                out.writeInt(block.length());
+            }
+            out.flush();
+            channel.write(java.nio.ByteBuffer.wrap(header.toByteArray()));
+            try (FileChannel source = FileChannel.open(blocksFile, StandardOpenOption.READ)) {
+                long position = 0;
+                while (position < blocksLength) {
+                    position += source.transferTo(position, blocksLength - position, channel);
+                }
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(blocksFile);
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        blocks.close();
+        Files.deleteIfExists(blocksFile);
+    }
+
+    private void flushBlock() throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(buffered * 16);
+        long previous = micros[0];
+        writeVarLong(raw, previous);
+        for (int i = 1; i < buffered; i++) {
+            writeVarLong(raw, micros[i] - previous);
+            previous = micros[i];
+        }
+        previous = ids[0];
+        writeVarLong(raw, zigZag(previous));
+        for (int i = 1; i < buffered; i++) {
+            writeVarLong(raw, zigZag(ids[i] - previous));
+            previous = ids[i];
+        }
+        writeRefs(raw, userRefs);
+        writeRefs(raw, areaRefs);
+        writeRefs(raw, cardRefs);
+        writeRefs(raw, eventTypeRefs);
+        writeRefs(raw, resultRefs);
+        for (int i = 0; i < buffered; i++) {
+            writeString(raw, notes[i]);
+        }
+
+        byte[] rawBytes = raw.toByteArray();
+        byte[] compressed = compress(rawBytes);
+        blocks.write(compressed);
+        index.add(new HistorySegment.BlockInfo(micros[0], ids[0], micros[buffered - 1], ids[buffered - 1],
+            buffered, blocksLength, rawBytes.length, compressed.length));
+        blocksLength += compressed.length;
+        buffered = 0;
+    }
+
+    private void writeRefs(ByteArrayOutputStream out, int[] refs) {
+        for (int i = 0; i < buffered; i++) {
+            writeVarLong(out, refs[i]);
+        }
+    }
+
+    private byte[] compress(byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            int length = deflater.deflate(chunk);
+            out.write(chunk, 0, length);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeLongs(ByteArrayOutputStream out, List<Long> values) {
+        writeVarLong(out, values.size());
+        for (Long value : values) {
+            writeVarLong(out, zigZag(value));
+        }
+    }
+
+    private static void writeStrings(ByteArrayOutputStream out, List<String> values) {
+        writeVarLong(out, values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    // Comprimento + 1, com 0 indicando nulo.
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static final class Dictionary<T> {
+
+        private final Map<T, Integer> refs = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+
+        int ref(T value) {
+            return refs.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+
+        List<T> values() {
+            return values;
+        }
+    }
+}
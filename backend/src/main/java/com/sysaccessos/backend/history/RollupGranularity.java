@@ -0,0 +1,20 @@
+package com.sysaccessos.backend.history;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Granularidade dos contadores de uso; os baldes diários seguem o fuso do {@code Clock}.
+ */
+public enum RollupGranularity {
+    HOUR,
+    DAY;
+
+    Instant bucketOf(Instant instant, ZoneId zone) {
+        if (this == HOUR) {
+            return instant.truncatedTo(ChronoUnit.HOURS);
+        }
+        return instant.atZone(zone).toLocalDate().atStartOfDay(zone).toInstant();
+    }
+}
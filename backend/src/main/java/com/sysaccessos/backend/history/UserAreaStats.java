@@ -0,0 +1,187 @@
+package com.sysaccessos.backend.history;
+
+import com.sysaccessos.backend.config.AfterCommit;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Acessos por (usuário, área) com o instante do último acesso (tabela {@code user_area_stats},
+ * carga inicial na migração V6) e uma pontuação com decaimento exponencial de meia-vida
+ * {@code sysaccessos.recommendations.half-life}. Incrementados na mesma transação que grava o
+ * histórico, respondem o ranking de um usuário sem percorrer o histórico dele.
+ */
+@Component
+public class UserAreaStats {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserAreaStats.class);
+
+    // A pontuação gravada vale em last_access_at: a parte mais antiga (a da linha ou a do lote)
+    // decai até o instante mais recente antes da soma. O MySQL avalia as atribuições em ordem,
+    // então decay_score ainda enxerga o last_access_at anterior. updated_at é o instante da
+    // gravação (do Clock), não o do evento.
+    private static final String UPSERT_SQL = "INSERT INTO user_area_stats "
+        + "(user_id, area_id, access_count, last_access_at, decay_score, updated_at) VALUES (?, ?, ?, ?, ?, ?) "
+        + "ON DUPLICATE KEY UPDATE access_count = access_count + VALUES(access_count), "
+        + "decay_score = decay_score * POWER(0.5, GREATEST(TIMESTAMPDIFF(MICROSECOND, last_access_at, "
+        + "VALUES(last_access_at)), 0) / ?) + POWER(0.5, GREATEST(TIMESTAMPDIFF(MICROSECOND, "
+        + "VALUES(last_access_at), last_access_at), 0) / ?) * VALUES(decay_score), "
+        + "last_access_at = GREATEST(last_access_at, VALUES(last_access_at)), updated_at = VALUES(updated_at)";
+
+    // Cada acesso decai até um instante de referência comum e a soma é trazida de volta a
+    // last_access_at; o expoente limitado evita estouro em pares sem uso há muitas meias-vidas.
+    private static final String BACKFILL_SQL = "UPDATE user_area_stats s SET decay_score = "
+        + "POWER(2, LEAST(TIMESTAMPDIFF(MICROSECOND, s.last_access_at, ?) / ?, 1000)) * ("
+        + "SELECT COALESCE(SUM(POWER(0.5, TIMESTAMPDIFF(MICROSECOND, h.recorded_at, ?) / ?)), 0) "
+        + "FROM access_history h WHERE h.user_id = s.user_id AND h.area_id = s.area_id "
+        + "AND h.recorded_at <= s.last_access_at), updated_at = ? "
+        + "WHERE s.decay_score IS NULL AND s.user_id BETWEEN ? AND ?";
+
+    private static final int BACKFILL_USERS_PER_STATEMENT = 500;
+
+    // Ordem fixa das chaves: gravações concorrentes travam as linhas na mesma sequência.
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparingLong(Key::userId)
+        .thenComparingLong(Key::areaId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
+    private final Duration halfLife;
+    private final double halfLifeMicros;
+
+    public UserAreaStats(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher, Clock clock,
+                         @Value("${sysaccessos.recommendations.half-life:30d}") Duration halfLife) {
+        if (halfLife.isZero() || halfLife.isNegative()) {
+            throw new IllegalArgumentException("sysaccessos.recommendations.half-life deve ser positiva.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.clock = clock;
+        this.halfLife = halfLife;
+        this.halfLifeMicros = halfLife.toNanos() / 1_000.0;
+    }
+
+    public Duration halfLife() {
+        return halfLife;
+    }
+
+    /**
+     * Calcula a pontuação das linhas anteriores à migração V7 a partir do histórico, em blocos
+     * de usuários. Gravações concorrentes não atrapalham: enquanto a pontuação é nula, o
+     * incremento também resulta em nulo e a linha é recalculada por inteiro.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillDecayScores() {
+        Map<String, Object> range = jdbcTemplate.queryForMap(
+            "SELECT MIN(user_id) AS first_user, MAX(user_id) AS last_user FROM user_area_stats WHERE decay_score IS NULL");
+        if (range.get("first_user") == null) {
+            return;
+        }
+        long first = ((Number) range.get("first_user")).longValue();
+        long last = ((Number) range.get("last_user")).longValue();
+        Timestamp reference = Timestamp.from(clock.instant());
+        int updated = 0;
+        for (long from = first; from <= last; from += BACKFILL_USERS_PER_STATEMENT) {
+            updated += jdbcTemplate.update(BACKFILL_SQL, reference, halfLifeMicros, reference, halfLifeMicros,
+                Timestamp.from(clock.instant()), from, from + BACKFILL_USERS_PER_STATEMENT - 1);
+        }
+        LOGGER.info("Pontuação com decaimento calculada para {} par(es) usuário/área.", updated);
+    }
+
+    /**
+     * Soma os eventos às estatísticas; deve rodar na transação que grava esses eventos. Após o
+     * commit, publica {@link UserAreaStatsUpdatedEvent} com os usuários envolvidos.
+     */
+    public void record(List<AccessHistoryEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Map<Key, Increment> increments = new TreeMap<>(KEY_ORDER);
+        for (AccessHistoryEvent event : events) {
+            increments.merge(new Key(event.userId(), event.areaId()),
+                new Increment(1, event.recordedAt().toInstant(), 1.0), this::combine);
+        }
+        List<Map.Entry<Key, Increment>> rows = new ArrayList<>(increments.entrySet());
+        Timestamp updatedAt = Timestamp.from(clock.instant());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (statement, row) -> {
+            statement.setLong(1, row.getKey().userId());
+            statement.setLong(2, row.getKey().areaId());
+            statement.setLong(3, row.getValue().count());
+            statement.setTimestamp(4, Timestamp.from(row.getValue().lastAccessAt()));
+            statement.setDouble(5, row.getValue().decayScore());
+            statement.setTimestamp(6, updatedAt);
+            statement.setDouble(7, halfLifeMicros);
+            statement.setDouble(8, halfLifeMicros);
+        });
+        Set<Long> userIds = new TreeSet<>();
+        increments.keySet().forEach(key -> userIds.add(key.userId()));
+        AfterCommit.run(() -> eventPublisher.publishEvent(new UserAreaStatsUpdatedEvent(userIds)));
+    }
+
+    /**
+     * Áreas mais acessadas pelo usuário (contagem e, no empate, acesso mais recente), lidas pelo índice.
+     */
+    public List<AreaUsage> topAreas(Long userId, int limit) {
+        return jdbcTemplate.query("SELECT s.area_id, a.name, s.access_count, s.last_access_at, s.decay_score "
+                + "FROM user_area_stats s JOIN access_areas a ON a.id = s.area_id WHERE s.user_id = ? "
+                + "ORDER BY s.access_count DESC, s.last_access_at DESC LIMIT ?",
+            (resultSet, rowNum) -> new AreaUsage(
+                resultSet.getLong("area_id"),
+                resultSet.getString("name"),
+                resultSet.getLong("access_count"),
+                resultSet.getTimestamp("last_access_at").toInstant().atZone(ZoneId.systemDefault()).toOffsetDateTime(),
+                resultSet.getDouble("decay_score")
+            ), userId, limit);
+    }
+
+    /**
+     * Todas as áreas já acessadas pelo usuário, para ordenar pela pontuação decaída no instante da consulta.
+     */
+    public List<AreaUsage> areas(Long userId) {
+        return jdbcTemplate.query("SELECT s.area_id, a.name, s.access_count, s.last_access_at, s.decay_score "
+                + "FROM user_area_stats s JOIN access_areas a ON a.id = s.area_id WHERE s.user_id = ?",
+            (resultSet, rowNum) -> new AreaUsage(
+                resultSet.getLong("area_id"),
+                resultSet.getString("name"),
+                resultSet.getLong("access_count"),
+                resultSet.getTimestamp("last_access_at").toInstant().atZone(ZoneId.systemDefault()).toOffsetDateTime(),
+                resultSet.getDouble("decay_score")
+            ), userId);
+    }
+
+    // Mesma regra do UPSERT_SQL: a parcela mais antiga decai até o acesso mais recente.
+    private Increment combine(Increment first, Increment second) {
+        Instant latest = first.lastAccessAt().isAfter(second.lastAccessAt()) ? first.lastAccessAt()
+            : second.lastAccessAt();
+        return new Increment(first.count() + second.count(), latest,
+            decayed(first, latest) + decayed(second, latest));
+    }
+
+    private double decayed(Increment increment, Instant until) {
+        double elapsedMicros = Duration.between(increment.lastAccessAt(), until).toNanos() / 1_000.0;
+        return increment.decayScore() * Math.pow(0.5, elapsedMicros / halfLifeMicros);
+    }
+
+    private record Key(long userId, long areaId) {
+    }
+
+    private record Increment(long count, Instant lastAccessAt, double decayScore) {
+    }
+}
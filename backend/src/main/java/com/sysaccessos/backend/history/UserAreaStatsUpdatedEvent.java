@@ -0,0 +1,15 @@
+package com.sysaccessos.backend.history;
+
+import java.util.Set;
+
+/**
+ * Publicado pelo {@link UserAreaStats} após o commit que somou acessos dos usuários
+ * {@code userIds}; quem guarda dados derivados desses usuários (p. ex. o cache de
+ * recomendações) os descarta ao recebê-lo.
+ */
+public record UserAreaStatsUpdatedEvent(Set<Long> userIds) {
+
+    public UserAreaStatsUpdatedEvent {
+        userIds = Set.copyOf(userIds);
+    }
+}
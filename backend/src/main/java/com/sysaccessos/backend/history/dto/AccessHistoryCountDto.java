@@ -0,0 +1,43 @@
+package com.sysaccessos.backend.history.dto;
+
+import java.time.OffsetDateTime;
+
+public class AccessHistoryCountDto {
+
+    private OffsetDateTime start;
+    private OffsetDateTime end;
+    private long count;
+
+    public AccessHistoryCountDto() {
+    }
+
+    public AccessHistoryCountDto(OffsetDateTime start, OffsetDateTime end, long count) {
+        this.start = start;
+        this.end = end;
+        this.count = count;
+    }
+
+    public OffsetDateTime getStart() {
+        return start;
+    }
+
+    public void setStart(OffsetDateTime start) {
+        this.start = start;
+    }
+
+    public OffsetDateTime getEnd() {
+        return end;
+    }
+
+    public void setEnd(OffsetDateTime end) {
+        this.end = end;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -15,6 +15,23 @@ public class AccessHistoryDto {
     private String notes;
     private OffsetDateTime recordedAt;
 
+    public AccessHistoryDto() {
+    }
+
+    public AccessHistoryDto(Long id, Long userId, String userName, Long areaId, String areaName, String eventType,
+                            String result, String cardIdentifier, String notes, OffsetDateTime recordedAt) {
+        this.id = id;
+        this.userId = userId;
+        this.userName = userName;
+        this.areaId = areaId;
+        this.areaName = areaName;
+        this.eventType = eventType;
+        this.result = result;
+        this.cardIdentifier = cardIdentifier;
+        this.notes = notes;
+        this.recordedAt = recordedAt;
+    }
+
     public Long getId() {
         return id;
     }
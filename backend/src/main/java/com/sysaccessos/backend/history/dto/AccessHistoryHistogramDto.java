@@ -0,0 +1,53 @@
+package com.sysaccessos.backend.history.dto;
+
+import java.util.List;
+
+public class AccessHistoryHistogramDto {
+
+    private String zone;
+    private String bucket;
+    private long total;
+    private List<HistogramBucketDto> buckets;
+
+    public AccessHistoryHistogramDto() {
+    }
+
+    public AccessHistoryHistogramDto(String zone, String bucket, long total, List<HistogramBucketDto> buckets) {
+        this.zone = zone;
+        this.bucket = bucket;
+        this.total = total;
+        this.buckets = buckets;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public void setZone(String zone) {
+        this.zone = zone;
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(String bucket) {
+        this.bucket = bucket;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public List<HistogramBucketDto> getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(List<HistogramBucketDto> buckets) {
+        this.buckets = buckets;
+    }
+}
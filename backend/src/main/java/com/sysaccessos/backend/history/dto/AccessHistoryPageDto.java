@@ -0,0 +1,37 @@
+package com.sysaccessos.backend.history.dto;
+
+import java.util.List;
+
+public class AccessHistoryPageDto {
+
+    private List<AccessHistoryDto> items;
+    private String nextCursor;
+
+    public AccessHistoryPageDto() {
+    }
+
+    public AccessHistoryPageDto(List<AccessHistoryDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<AccessHistoryDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<AccessHistoryDto> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
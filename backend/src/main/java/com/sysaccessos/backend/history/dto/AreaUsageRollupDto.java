@@ -0,0 +1,74 @@
+package com.sysaccessos.backend.history.dto;
+
+import java.time.OffsetDateTime;
+
+public class AreaUsageRollupDto {
+
+    private Long areaId;
+    private String areaName;
+    private OffsetDateTime bucketStart;
+    private String eventType;
+    private String result;
+    private long count;
+
+    public AreaUsageRollupDto() {
+    }
+
+    public AreaUsageRollupDto(Long areaId, String areaName, OffsetDateTime bucketStart, String eventType,
+                              String result, long count) {
+        this.areaId = areaId;
+        this.areaName = areaName;
+        this.bucketStart = bucketStart;
+        this.eventType = eventType;
+        this.result = result;
+        this.count = count;
+    }
+
+    public Long getAreaId() {
+        return areaId;
+    }
+
+    public void setAreaId(Long areaId) {
+        this.areaId = areaId;
+    }
+
+    public String getAreaName() {
+        return areaName;
+    }
+
+    public void setAreaName(String areaName) {
+        this.areaName = areaName;
+    }
+
+    public OffsetDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(OffsetDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
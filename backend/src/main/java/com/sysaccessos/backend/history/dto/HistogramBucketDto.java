@@ -0,0 +1,33 @@
+package com.sysaccessos.backend.history.dto;
+
+import java.time.OffsetDateTime;
+
+public class HistogramBucketDto {
+
+    private OffsetDateTime start;
+    private long count;
+
+    public HistogramBucketDto() {
+    }
+
+    public HistogramBucketDto(OffsetDateTime start, long count) {
+        this.start = start;
+        this.count = count;
+    }
+
+    public OffsetDateTime getStart() {
+        return start;
+    }
+
+    public void setStart(OffsetDateTime start) {
+        this.start = start;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,190 @@
+package com.sysaccessos.backend.live;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Distribui eventos ao vivo (ocupação das salas e novos registros de histórico) para os
+ * painéis conectados por Server-Sent Events.
+ * <p>
+ * Quem publica nunca espera pelos clientes: o evento é serializado uma vez e oferecido à
+ * fila limitada de cada cliente; com a fila cheia, o evento mais antigo é descartado.
+ * Um pool pequeno de threads esvazia as filas, de modo que um cliente lento atrasa só a si.
+ */
+@Component
+public class LiveEventBroadcaster {
+
+    public static final String OCCUPANCY = "occupancy";
+    public static final String ACCESS = "access";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LiveEventBroadcaster.class);
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int maxClients;
+    private final long timeoutMillis;
+    private final ExecutorService senders;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public LiveEventBroadcaster(ObjectMapper objectMapper,
+                                @Value("${sysaccessos.live.client-buffer:256}") int bufferSize,
+                                @Value("${sysaccessos.live.max-clients:500}") int maxClients,
+                                @Value("${sysaccessos.live.timeout-ms:1800000}") long timeoutMillis,
+                                @Value("${sysaccessos.live.sender-threads:4}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.maxClients = maxClients;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "live-events-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxClients) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Limite de conexões ao vivo atingido. Tente novamente mais tarde.");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        // Primeiro envio confirma a conexão ao navegador antes de qualquer evento real.
+        subscriber.offer(new LiveEvent(0, null, null, "conectado"));
+        return emitter;
+    }
+
+    /**
+     * Publica o evento para todos os clientes sem bloquear quem chama.
+     */
+    public void publish(String name, Object payload) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            LOGGER.warn("Evento ao vivo '{}' não serializável; descartado.", name, ex);
+            return;
+        }
+        LiveEvent event = new LiveEvent(sequence.incrementAndGet(), name, json, null);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    public boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    public int clientCount() {
+        return subscribers.size();
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    // Mantém a conexão aberta em proxies e detecta clientes que saíram sem avisar.
+    @Scheduled(fixedDelayString = "${sysaccessos.live.heartbeat-ms:15000}")
+    public void heartbeat() {
+        LiveEvent ping = new LiveEvent(0, null, null, "ping");
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(ping);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+
+    private record LiveEvent(long id, String name, String json, String comment) {
+
+        SseEmitter.SseEventBuilder toSse() {
+            if (comment != null) {
+                return SseEmitter.event().comment(comment);
+            }
+            return SseEmitter.event().id(Long.toString(id)).name(name).data(json);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<LiveEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(LiveEvent event) {
+            while (!queue.offer(event)) {
+                if (queue.poll() != null) {
+                    dropped.incrementAndGet();
+                }
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RuntimeException ex) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                LiveEvent event;
+                while ((event = queue.poll()) != null) {
+                    emitter.send(event.toSse());
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // Cliente desconectado ou emissor já concluído.
+                subscribers.remove(this);
+                queue.clear();
+                emitter.completeWithError(ex);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.sysaccessos.backend.live;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/live")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+public class LiveEventController {
+
+    private final LiveEventBroadcaster broadcaster;
+
+    public LiveEventController(LiveEventBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    /**
+     * Fluxo SSE com os eventos {@code occupancy} (movimentações das salas) e
+     * {@code access} (novos registros de histórico).
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events() {
+        return broadcaster.subscribe();
+    }
+}
@@ -0,0 +1,74 @@
+package com.sysaccessos.backend.permission;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Conjunto das permissões vigentes no dia corrente (usuário → áreas), derivado do
+ * {@link PermissionDecisionIndex}. É reconstruído à meia-noite local e sempre que
+ * o índice muda, de modo que cada verificação é só um teste de pertinência.
+ */
+@Component
+public class ActivePermissionSnapshot {
+
+    private final PermissionDecisionIndex decisionIndex;
+    private final Clock clock;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile Snapshot current;
+
+    public ActivePermissionSnapshot(PermissionDecisionIndex decisionIndex, Clock clock) {
+        this.decisionIndex = decisionIndex;
+        this.clock = clock;
+    }
+
+    public boolean isActive(Long userId, Long areaId) {
+        if (userId == null || areaId == null) {
+            return false;
+        }
+        Set<Long> areaIds = snapshot().activeAreas().get(userId);
+        return areaIds != null && areaIds.contains(areaId);
+    }
+
+    public Set<Long> activeAreaIds(Long userId) {
+        return snapshot().activeAreas().getOrDefault(userId, Set.of());
+    }
+
+    @Scheduled(cron = "0 0 0 * * *")
+    public void rebuildAtMidnight() {
+        rebuild(LocalDate.now(clock));
+    }
+
+    private Snapshot snapshot() {
+        Snapshot snapshot = current;
+        LocalDate today = LocalDate.now(clock);
+        if (snapshot == null || !snapshot.day().equals(today) || snapshot.version() != decisionIndex.version()) {
+            snapshot = rebuild(today);
+        }
+        return snapshot;
+    }
+
+    private Snapshot rebuild(LocalDate day) {
+        rebuildLock.lock();
+        try {
+            Snapshot snapshot = current;
+            long version = decisionIndex.version();
+            if (snapshot != null && snapshot.day().equals(day) && snapshot.version() == version) {
+                return snapshot;
+            }
+            snapshot = new Snapshot(day, version, decisionIndex.activeOn(day));
+            current = snapshot;
+            return snapshot;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private record Snapshot(LocalDate day, long version, Map<Long, Set<Long>> activeAreas) {
+    }
+}
@@ -0,0 +1,155 @@
+package com.sysaccessos.backend.permission;
+
+import com.sysaccessos.backend.config.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Índice em memória das permissões (usuário × área) usado na decisão de acesso.
+ * Carregado na inicialização e mantido pelo {@link UserPermissionService}, evita
+ * consultas ao banco a cada passagem de cartão. As verificações do dia passam
+ * pelo {@link ActivePermissionSnapshot}.
+ */
+@Component
+public class PermissionDecisionIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PermissionDecisionIndex.class);
+
+    private final UserPermissionRepository permissionRepository;
+
+    private final Map<Long, Map<Long, Grant[]>> grantsByUser = new ConcurrentHashMap<>();
+    private final Map<Long, Grant> grantsById = new ConcurrentHashMap<>();
+
+    private volatile long version;
+
+    public PermissionDecisionIndex(UserPermissionRepository permissionRepository) {
+        this.permissionRepository = permissionRepository;
+    }
+
+    @PostConstruct
+    public void reload() {
+        List<UserPermission> permissions = permissionRepository.findAll();
+        synchronized (this) {
+            grantsByUser.clear();
+            grantsById.clear();
+            permissions.forEach(permission -> put(Grant.of(permission)));
+            version++;
+        }
+        LOGGER.info("Índice de permissões carregado com {} registro(s).", permissions.size());
+    }
+
+    /**
+     * Usuário → áreas com permissão vigente no dia informado.
+     */
+    public Map<Long, Set<Long>> activeOn(LocalDate day) {
+        Map<Long, Set<Long>> active = new HashMap<>();
+        grantsByUser.forEach((userId, areas) -> areas.forEach((areaId, grants) -> {
+            for (Grant grant : grants) {
+                if (grant.covers(day)) {
+                    active.computeIfAbsent(userId, id -> new HashSet<>()).add(areaId);
+                    break;
+                }
+            }
+        }));
+        active.replaceAll((userId, areaIds) -> Set.copyOf(areaIds));
+        return Map.copyOf(active);
+    }
+
+    /**
+     * Incrementado a cada alteração aplicada; permite detectar derivados desatualizados.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Registra a permissão salva; dentro de uma transação, só é aplicada após o commit.
+     */
+    public void register(UserPermission permission) {
+        Grant grant = Grant.of(permission);
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                remove(grant.permissionId());
+                put(grant);
+                version++;
+            }
+        });
+    }
+
+    public void unregister(Long permissionId) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                remove(permissionId);
+                version++;
+            }
+        });
+    }
+
+    private void put(Grant grant) {
+        grantsById.put(grant.permissionId(), grant);
+        grantsByUser.compute(grant.userId(), (userId, current) -> {
+            Map<Long, Grant[]> areas = current == null ? new HashMap<>() : new HashMap<>(current);
+            Grant[] existing = areas.get(grant.areaId());
+            Grant[] updated;
+            if (existing == null) {
+                updated = new Grant[] {grant};
+            } else {
+                updated = Arrays.copyOf(existing, existing.length + 1);
+                updated[existing.length] = grant;
+            }
+            areas.put(grant.areaId(), updated);
+            return Map.copyOf(areas);
+        });
+    }
+
+    private void remove(Long permissionId) {
+        Grant previous = grantsById.remove(permissionId);
+        if (previous == null) {
+            return;
+        }
+        grantsByUser.computeIfPresent(previous.userId(), (userId, current) -> {
+            Map<Long, Grant[]> areas = new HashMap<>(current);
+            Grant[] existing = areas.get(previous.areaId());
+            if (existing != null) {
+                Grant[] remaining = Arrays.stream(existing)
+                    .filter(grant -> grant.permissionId() != previous.permissionId())
+                    .toArray(Grant[]::new);
+                if (remaining.length == 0) {
+                    areas.remove(previous.areaId());
+                } else {
+                    areas.put(previous.areaId(), remaining);
+                }
+            }
+            return areas.isEmpty() ? null : Map.copyOf(areas);
+        });
+    }
+
+    private record Grant(long permissionId, long userId, long areaId, LocalDate validFrom, LocalDate validUntil,
+                         boolean active) {
+
+        static Grant of(UserPermission permission) {
+            return new Grant(
+                permission.getId(),
+                permission.getUser().getId(),
+                permission.getArea().getId(),
+                permission.getValidFrom(),
+                permission.getValidUntil(),
+                "ATIVA".equalsIgnoreCase(permission.getStatus())
+            );
+        }
+
+        boolean covers(LocalDate day) {
+            return active && !validFrom.isAfter(day) && !validUntil.isBefore(day);
+        }
+    }
+}
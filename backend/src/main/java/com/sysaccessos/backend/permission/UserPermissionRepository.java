@@ -1,13 +1,29 @@
 package com.sysaccessos.backend.permission;
 
+import com.sysaccessos.backend.permission.dto.UserPermissionDto;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface UserPermissionRepository extends JpaRepository<UserPermission, Long> {
 
-    List<UserPermission> findByUserId(Long userId);
+    // Projeção direta no DTO: usuário e área vêm na mesma consulta das permissões.
+    String SELECT_DTO = "select new com.sysaccessos.backend.permission.dto.UserPermissionDto("
+        + "p.id, u.id, u.name, u.email, a.id, a.name, p.accessLevel, p.validFrom, p.validUntil, p.status, "
+        + "p.notes, p.createdAt, p.updatedAt) "
+        + "from UserPermission p join p.user u join p.area a ";
 
-    boolean existsByUserIdAndAreaIdAndStatus(Long userId, Long areaId, String status);
+    @Query(SELECT_DTO + "order by p.id")
+    List<UserPermissionDto> findAllDtos();
+
+    @Query(SELECT_DTO + "where p.id = :id")
+    Optional<UserPermissionDto> findDtoById(@Param("id") Long id);
 
-    List<UserPermission> findByUserIdAndAreaId(Long userId, Long areaId);
+    // Filtra pela coluna user_id das permissões, servida pelo índice (user_id, area_id, status).
+    @Query(SELECT_DTO + "where p.user.id = :userId order by p.id")
+    List<UserPermissionDto> findDtosByUserId(@Param("userId") Long userId);
+
+    boolean existsByUserIdAndAreaIdAndStatus(Long userId, Long areaId, String status);
 }
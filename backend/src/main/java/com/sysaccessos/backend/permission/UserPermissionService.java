@@ -7,7 +7,6 @@ import com.sysaccessos.backend.permission.dto.UserPermissionRequest;
 import com.sysaccessos.backend.user.User;
 import com.sysaccessos.backend.user.UserRepository;
 import java.util.List;
-import java.util.stream.Collectors;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,26 +18,25 @@ public class UserPermissionService {
     private final UserPermissionRepository permissionRepository;
     private final UserRepository userRepository;
     private final AccessAreaRepository areaRepository;
+    private final PermissionDecisionIndex decisionIndex;
 
     public UserPermissionService(UserPermissionRepository permissionRepository, UserRepository userRepository,
-                                 AccessAreaRepository areaRepository) {
+                                 AccessAreaRepository areaRepository, PermissionDecisionIndex decisionIndex) {
         this.permissionRepository = permissionRepository;
         this.userRepository = userRepository;
         this.areaRepository = areaRepository;
+        this.decisionIndex = decisionIndex;
     }
 
     @Transactional(readOnly = true)
     public List<UserPermissionDto> findAll() {
-        return permissionRepository.findAll().stream()
-            .map(this::toDto)
-            .collect(Collectors.toList());
+        return permissionRepository.findAllDtos();
     }
 
     @Transactional(readOnly = true)
     public UserPermissionDto findById(Long id) {
-        UserPermission permission = permissionRepository.findById(id)
+        return permissionRepository.findDtoById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Permissão não encontrada."));
-        return toDto(permission);
     }
 
     @Transactional(readOnly = true)
@@ -46,9 +44,7 @@ public class UserPermissionService {
         if (userId == null || userId < 1) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Usuário inválido.");
         }
-        return permissionRepository.findByUserId(userId).stream()
-            .map(this::toDto)
-            .collect(Collectors.toList());
+        return permissionRepository.findDtosByUserId(userId);
     }
 
     @Transactional
@@ -66,6 +62,7 @@ public class UserPermissionService {
         UserPermission permission = new UserPermission();
         copyToEntity(request, user, area, permission);
         UserPermission saved = permissionRepository.save(permission);
+        decisionIndex.register(saved);
         return toDto(saved);
     }
 
@@ -90,6 +87,7 @@ public class UserPermissionService {
 
         copyToEntity(request, user, area, permission);
         UserPermission saved = permissionRepository.save(permission);
+        decisionIndex.register(saved);
         return toDto(saved);
     }
 
@@ -98,6 +96,7 @@ public class UserPermissionService {
         UserPermission permission = permissionRepository.findById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Permissão não encontrada."));
         permissionRepository.delete(permission);
+        decisionIndex.unregister(permission.getId());
     }
 
     private void validateDates(UserPermissionRequest request) {
@@ -19,6 +19,27 @@ public class UserPermissionDto {
     private OffsetDateTime createdAt;
     private OffsetDateTime updatedAt;
 
+    public UserPermissionDto() {
+    }
+
+    public UserPermissionDto(Long id, Long userId, String userName, String userEmail, Long areaId, String areaName,
+                             String accessLevel, LocalDate validFrom, LocalDate validUntil, String status,
+                             String notes, OffsetDateTime createdAt, OffsetDateTime updatedAt) {
+        this.id = id;
+        this.userId = userId;
+        this.userName = userName;
+        this.userEmail = userEmail;
+        this.areaId = areaId;
+        this.areaName = areaName;
+        this.accessLevel = accessLevel;
+        this.validFrom = validFrom;
+        this.validUntil = validUntil;
+        this.status = status;
+        this.notes = notes;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
     public Long getId() {
         return id;
     }
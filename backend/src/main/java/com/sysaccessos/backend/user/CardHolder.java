@@ -0,0 +1,11 @@
+package com.sysaccessos.backend.user;
+
+/**
+ * Resumo do titular de um cartão, suficiente para decidir e registrar um acesso.
+ */
+public record CardHolder(Long id, String name, UserRole role) {
+
+    static CardHolder of(User user) {
+        return new CardHolder(user.getId(), user.getName(), user.getRole());
+    }
+}
@@ -0,0 +1,241 @@
+package com.sysaccessos.backend.user;
+
+import com.sysaccessos.backend.config.AfterCommit;
+import com.sysaccessos.backend.user.dto.CardCacheStatsDto;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache LRU limitado de cartão → titular. Populado sob demanda a partir do
+ * {@link UserRepository} e invalidado pelo {@link UserManagementService} quando
+ * um cartão é cadastrado ou alterado.
+ * <p>
+ * Cartões que não passam no {@link RegisteredCardFilter} são recusados sem consultar o banco:
+ * todo cadastro entra no filtro antes do commit, então o filtro é a fonte de verdade dos
+ * cartões desta instância. Com várias instâncias ou cadastros direto no banco, ligue
+ * {@code verify-misses}: as recusas do filtro são confirmadas no banco uma vez e, se o cartão
+ * existir, ele entra no filtro. Cartões desconhecidos que passam no filtro (falsos positivos)
+ * ficam no cache negativo, com expiração.
+ */
+@Component
+public class CardHolderCache {
+
+    private final UserRepository userRepository;
+    private final RegisteredCardFilter cardFilter;
+    private final int maxSize;
+    private final int negativeMaxSize;
+    private final long negativeTtlNanos;
+    private final boolean verifyFilterMisses;
+    private final Map<String, CardHolder> entries;
+    private final Map<String, Long> unknownCards;
+    // ReentrantLock em vez de synchronized: não prende a thread portadora no modo de threads virtuais.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CardHolderCache(UserRepository userRepository, RegisteredCardFilter cardFilter,
+                           @Value("${sysaccessos.cache.cards.max-size:10000}") int maxSize,
+                           @Value("${sysaccessos.cache.cards.negative-max-size:10000}") int negativeMaxSize,
+                           @Value("${sysaccessos.cache.cards.negative-ttl:60s}") Duration negativeTtl,
+                           @Value("${sysaccessos.cache.cards.filter.verify-misses:false}") boolean verifyFilterMisses) {
+        this.userRepository = userRepository;
+        this.cardFilter = cardFilter;
+        this.maxSize = maxSize;
+        this.negativeMaxSize = negativeMaxSize;
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.verifyFilterMisses = verifyFilterMisses;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CardHolder> eldest) {
+                if (size() > CardHolderCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.unknownCards = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > CardHolderCache.this.negativeMaxSize;
+            }
+        };
+    }
+
+    public Optional<CardHolder> resolve(String cardIdentifier) {
+        if (cardIdentifier == null) {
+            return Optional.empty();
+        }
+        boolean filtered = !cardFilter.mightBeRegistered(cardIdentifier);
+        if (filtered && !verifyFilterMisses) {
+            rejections.incrementAndGet();
+            return Optional.empty();
+        }
+        CardHolder cached;
+        boolean knownUnknown;
+        lock.lock();
+        try {
+            cached = entries.get(cardIdentifier);
+            knownUnknown = cached == null && isKnownUnknown(cardIdentifier);
+        } finally {
+            lock.unlock();
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+            return Optional.of(cached);
+        }
+        if (knownUnknown) {
+            rejections.incrementAndGet();
+            return Optional.empty();
+        }
+        misses.incrementAndGet();
+
+        // A consulta roda fora do lock; se houver invalidação no meio, o resultado não é guardado.
+        long generation = invalidations.get();
+        Optional<CardHolder> loaded = userRepository.findByCardIdentifier(cardIdentifier).map(CardHolder::of);
+        if (filtered && loaded.isPresent()) {
+            cardFilter.register(cardIdentifier);
+        }
+        lock.lock();
+        try {
+            if (invalidations.get() == generation) {
+                if (loaded.isPresent()) {
+                    entries.put(cardIdentifier, loaded.get());
+                } else {
+                    unknownCards.put(cardIdentifier, System.nanoTime() + negativeTtlNanos);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return loaded;
+    }
+
+    /**
+     * Resolve vários cartões de uma vez; os ausentes do cache são buscados em uma única consulta.
+     */
+    public Map<String, CardHolder> resolveAll(Collection<String> cardIdentifiers) {
+        Map<String, CardHolder> resolved = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        int rejected = 0;
+        lock.lock();
+        try {
+            for (String cardIdentifier : cardIdentifiers) {
+                if (cardIdentifier == null) {
+                    continue;
+                }
+                if (!verifyFilterMisses && !cardFilter.mightBeRegistered(cardIdentifier)) {
+                    rejected++;
+                    continue;
+                }
+                CardHolder cached = entries.get(cardIdentifier);
+                if (cached != null) {
+                    resolved.put(cardIdentifier, cached);
+                } else if (isKnownUnknown(cardIdentifier)) {
+                    rejected++;
+                } else {
+                    missing.add(cardIdentifier);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        hits.addAndGet(resolved.size());
+        rejections.addAndGet(rejected);
+        misses.addAndGet(missing.size());
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        long generation = invalidations.get();
+        List<User> users = userRepository.findByCardIdentifierIn(missing);
+        for (User user : users) {
+            if (!cardFilter.mightBeRegistered(user.getCardIdentifier())) {
+                cardFilter.register(user.getCardIdentifier());
+            }
+        }
+        lock.lock();
+        try {
+            boolean current = invalidations.get() == generation;
+            for (User user : users) {
+                CardHolder holder = CardHolder.of(user);
+                resolved.put(user.getCardIdentifier(), holder);
+                if (current) {
+                    entries.put(user.getCardIdentifier(), holder);
+                }
+            }
+            if (current) {
+                long expiresAt = System.nanoTime() + negativeTtlNanos;
+                missing.stream()
+                    .filter(cardIdentifier -> !resolved.containsKey(cardIdentifier))
+                    .forEach(cardIdentifier -> unknownCards.put(cardIdentifier, expiresAt));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return resolved;
+    }
+
+    /**
+     * Invalida os cartões informados após o commit da transação corrente. Os cartões entram no
+     * filtro de cadastrados já aqui, de forma síncrona e antes do commit: quando o cadastro fica
+     * visível, o cartão já passa no filtro, que por isso pode recusar os demais sem o banco.
+     */
+    public void evict(String... cardIdentifiers) {
+        for (String cardIdentifier : cardIdentifiers) {
+            cardFilter.register(cardIdentifier);
+        }
+        AfterCommit.run(() -> {
+            lock.lock();
+            try {
+                invalidations.incrementAndGet();
+                for (String cardIdentifier : cardIdentifiers) {
+                    if (cardIdentifier != null) {
+                        entries.remove(cardIdentifier);
+                        unknownCards.remove(cardIdentifier);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    public CardCacheStatsDto stats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        return new CardCacheStatsDto(size, maxSize, hits.get(), misses.get(), evictions.get(), rejections.get());
+    }
+
+    // Deve ser chamado com o lock adquirido.
+    private boolean isKnownUnknown(String cardIdentifier) {
+        Long expiresAt = unknownCards.get(cardIdentifier);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - expiresAt > 0) {
+            unknownCards.remove(cardIdentifier);
+            return false;
+        }
+        return true;
+    }
+}
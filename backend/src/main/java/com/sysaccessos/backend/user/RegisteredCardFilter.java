@@ -0,0 +1,178 @@
+package com.sysaccessos.backend.user;
+
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Filtro de Bloom sobre todos os {@code cardIdentifier} cadastrados. Dentro da instância não
+ * tem falsos negativos: se o cartão não passa no filtro, não foi cadastrado por ela nem existia
+ * na última recarga, e o {@link CardHolderCache} o recusa sem consultar o banco. Cartões
+ * cadastrados por outra instância ou direto no banco só entram na recarga periódica; nesses
+ * cenários ligue {@code sysaccessos.cache.cards.filter.verify-misses} para confirmar as
+ * recusas no banco.
+ */
+@Component
+public class RegisteredCardFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegisteredCardFilter.class);
+
+    private final UserRepository userRepository;
+    private final int minimumCapacity;
+    private final double falsePositiveRate;
+    private final int maxPending;
+
+    private final Set<String> recentlyRegistered = ConcurrentHashMap.newKeySet();
+    private volatile Bits bits;
+    // ReentrantLock em vez de synchronized: a recarga consulta o banco e não pode prender a
+    // thread portadora no modo de threads virtuais.
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public RegisteredCardFilter(UserRepository userRepository,
+                                @Value("${sysaccessos.cache.cards.filter.min-capacity:10000}") int minimumCapacity,
+                                @Value("${sysaccessos.cache.cards.filter.false-positive-rate:0.01}") double falsePositiveRate,
+                                @Value("${sysaccessos.cache.cards.filter.max-pending:1000}") int maxPending) {
+        this.userRepository = userRepository;
+        this.minimumCapacity = minimumCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxPending = maxPending;
+    }
+
+    @PostConstruct
+    public void reload() {
+        LOGGER.info("Filtro de cartões carregado com {} identificador(es).", rebuild());
+    }
+
+    /**
+     * Recarga periódica: traz os cartões cadastrados por outras instâncias ou direto no banco.
+     */
+    @Scheduled(initialDelayString = "${sysaccessos.cache.cards.filter.reload-interval-ms:300000}",
+        fixedDelayString = "${sysaccessos.cache.cards.filter.reload-interval-ms:300000}")
+    public void reloadPeriodically() {
+        LOGGER.debug("Filtro de cartões recarregado com {} identificador(es).", rebuild());
+    }
+
+    private int rebuild() {
+        reloadLock.lock();
+        try {
+            // Cartões registrados em transações ainda não commitadas não aparecem na consulta.
+            Set<String> registered = Set.copyOf(recentlyRegistered);
+            List<String> cardIdentifiers = userRepository.findAllCardIdentifiers();
+            Bits rebuilt = new Bits(Math.max(minimumCapacity, (cardIdentifiers.size() + registered.size()) * 2L),
+                falsePositiveRate);
+            cardIdentifiers.forEach(rebuilt::add);
+            registered.forEach(rebuilt::add);
+            bits = rebuilt;
+            recentlyRegistered.removeAll(registered);
+            // Cartões registrados durante a recarga podem ter ido só para o filtro antigo.
+            recentlyRegistered.forEach(rebuilt::add);
+            return cardIdentifiers.size();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    public boolean mightBeRegistered(String cardIdentifier) {
+        return cardIdentifier != null
+            && (bits.mightContain(cardIdentifier) || recentlyRegistered.contains(cardIdentifier));
+    }
+
+    /**
+     * Inclui o cartão imediatamente (antes do commit), pois um falso positivo é
+     * inofensivo e um falso negativo recusaria um cartão válido. Os cartões registrados
+     * desde a última recarga ficam também num conjunto à parte, limitado a
+     * {@code max-pending}: acima disso o filtro é recarregado.
+     */
+    public void register(String cardIdentifier) {
+        if (cardIdentifier == null) {
+            return;
+        }
+        recentlyRegistered.add(cardIdentifier);
+        Bits current;
+        do {
+            current = bits;
+            current.add(cardIdentifier);
+        } while (current != bits);
+        if (current.isSaturated() || recentlyRegistered.size() > maxPending) {
+            reload();
+        }
+    }
+
+    private static final class Bits {
+
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+        private final long capacity;
+        private final AtomicLong insertions = new AtomicLong();
+
+        Bits(long capacity, double falsePositiveRate) {
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) ((optimalBits + 63) / 64));
+            this.bitCount = words.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+            this.capacity = capacity;
+        }
+
+        void add(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long previous;
+                do {
+                    previous = words.get(word);
+                    if ((previous & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, previous, previous | mask));
+            }
+            insertions.incrementAndGet();
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean isSaturated() {
+            return insertions.get() > capacity;
+        }
+
+        // FNV-1a de 64 bits seguido do finalizador do MurmurHash3.
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.sysaccessos.backend.user;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Recusa de cartão não cadastrado. Não captura stack trace: cartões clonados ou
+ * inválidos são reapresentados em rajadas pelos leitores e a recusa deve ser barata.
+ */
+public class UnknownCardException extends ResponseStatusException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UnknownCardException(HttpStatus status) {
+        super(status, "Cartão não identificado.");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -14,10 +14,13 @@ public class UserManagementService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CardHolderCache cardHolderCache;
 
-    public UserManagementService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserManagementService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                                 CardHolderCache cardHolderCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.cardHolderCache = cardHolderCache;
     }
 
     @Transactional
@@ -44,7 +47,9 @@ public class UserManagementService {
         user.setCardIdentifier(cardIdentifier);
         user.setPassword(passwordEncoder.encode(request.getPassword()));
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        cardHolderCache.evict(cardIdentifier);
+        return saved;
     }
 
     @Transactional
@@ -66,13 +71,16 @@ public class UserManagementService {
             throw new UserValidationException("Identificador de cartão já cadastrado.");
         }
 
+        String previousCardIdentifier = user.getCardIdentifier();
         user.setName(request.getName().trim());
         user.setEmail(email);
         user.setRegistrationCode(registrationCode);
         user.setRole(parseRole(request.getRole()));
         user.setCardIdentifier(cardIdentifier);
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        cardHolderCache.evict(previousCardIdentifier, cardIdentifier);
+        return saved;
     }
 
     private UserRole parseRole(String rawRole) {
@@ -1,8 +1,11 @@
 package com.sysaccessos.backend.user;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
@@ -20,5 +23,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByCardIdentifier(String cardIdentifier);
 
+    List<User> findByCardIdentifierIn(Collection<String> cardIdentifiers);
+
+    @Query("select u.cardIdentifier from User u")
+    List<String> findAllCardIdentifiers();
+
     Optional<User> findByEmail(String email);
 }
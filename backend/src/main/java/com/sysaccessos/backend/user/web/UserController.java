@@ -14,9 +14,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.sysaccessos.backend.auth.dto.RegisterRequest;
+import com.sysaccessos.backend.user.CardHolderCache;
 import com.sysaccessos.backend.user.User;
 import com.sysaccessos.backend.user.UserManagementService;
 import com.sysaccessos.backend.user.UserRepository;
+import com.sysaccessos.backend.user.dto.CardCacheStatsDto;
 import com.sysaccessos.backend.user.dto.UserSummaryDto;
 import com.sysaccessos.backend.user.dto.UserUpdateRequest;
 
@@ -29,10 +31,13 @@ public class UserController {
 
     private final UserRepository userRepository;
     private final UserManagementService userManagementService;
+    private final CardHolderCache cardHolderCache;
 
-    public UserController(UserRepository userRepository, UserManagementService userManagementService) {
+    public UserController(UserRepository userRepository, UserManagementService userManagementService,
+                          CardHolderCache cardHolderCache) {
         this.userRepository = userRepository;
         this.userManagementService = userManagementService;
+        this.cardHolderCache = cardHolderCache;
     }
 
     @GetMapping
@@ -55,6 +60,11 @@ public class UserController {
         return ResponseEntity.ok(toDto(user));
     }
 
+    @GetMapping("/card-cache")
+    public CardCacheStatsDto cardCacheStats() {
+        return cardHolderCache.stats();
+    }
+
     private UserSummaryDto toDto(User user) {
         UserSummaryDto dto = new UserSummaryDto();
         dto.setId(user.getId());
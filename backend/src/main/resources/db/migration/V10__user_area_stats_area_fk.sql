@@ -0,0 +1,7 @@
+-- access_history particionada não aceita chave estrangeira; user_area_stats, gravada na mesma
+-- transação do histórico e mantida depois do arquivamento, passa a ser o vínculo com a área.
+-- Pares órfãos de áreas já removidas não aparecem em nenhuma consulta e são descartados.
+DELETE FROM user_area_stats WHERE area_id NOT IN (SELECT id FROM access_areas);
+
+ALTER TABLE user_area_stats
+    ADD CONSTRAINT fk_user_area_stats_area FOREIGN KEY (area_id) REFERENCES access_areas (id);
@@ -0,0 +1,11 @@
+-- Instante da gravação de cada par, que a validade das recomendações pré-calculadas compara com
+-- o início da execução (last_access_at é o instante do evento e pode chegar atrasado).
+ALTER TABLE user_area_stats ADD COLUMN updated_at DATETIME(6) NULL;
+
+-- Sem o instante real das gravações anteriores, as linhas existentes contam como gravadas no
+-- início da última execução: as listas já pré-calculadas deixam de valer até a próxima.
+UPDATE user_area_stats
+SET updated_at = GREATEST(last_access_at,
+    COALESCE((SELECT MAX(started_at) FROM recommendation_job_runs), last_access_at));
+
+ALTER TABLE user_area_stats MODIFY updated_at DATETIME(6) NOT NULL;
@@ -0,0 +1,67 @@
+-- Esquema inicial, equivalente ao gerado pelo Hibernate até aqui.
+-- IF NOT EXISTS permite aplicar sobre bancos criados pelo antigo ddl-auto=update.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(120) NOT NULL,
+    email VARCHAR(80) NOT NULL,
+    registration_code VARCHAR(40) NOT NULL,
+    role ENUM ('ADMIN', 'PROFESSOR', 'ALUNO', 'SERVIDOR') NOT NULL,
+    card_identifier VARCHAR(80) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_registration_code UNIQUE (registration_code),
+    CONSTRAINT uk_users_card_identifier UNIQUE (card_identifier)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS access_areas (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(80) NOT NULL,
+    description VARCHAR(160) NOT NULL,
+    location VARCHAR(120) NOT NULL,
+    security_level VARCHAR(40) NOT NULL,
+    notes VARCHAR(255),
+    active BIT NOT NULL,
+    in_use BIT NOT NULL,
+    occupant_name VARCHAR(120),
+    occupant_card_identifier VARCHAR(80),
+    occupant_user_id BIGINT,
+    last_movement_at DATETIME(6),
+    version BIGINT NOT NULL DEFAULT 0,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_access_areas_name UNIQUE (name)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS user_permissions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    area_id BIGINT NOT NULL,
+    access_level VARCHAR(40) NOT NULL,
+    valid_from DATE NOT NULL,
+    valid_until DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    notes VARCHAR(160),
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_user_permissions_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_permissions_area FOREIGN KEY (area_id) REFERENCES access_areas (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS access_history (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    area_id BIGINT NOT NULL,
+    event_type VARCHAR(10) NOT NULL,
+    result VARCHAR(12) NOT NULL,
+    card_identifier VARCHAR(120) NOT NULL,
+    notes VARCHAR(160),
+    recorded_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_access_history_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_access_history_area FOREIGN KEY (area_id) REFERENCES access_areas (id)
+) ENGINE = InnoDB;
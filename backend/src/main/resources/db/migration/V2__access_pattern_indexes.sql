@@ -0,0 +1,18 @@
+-- Índices dos padrões de consulta do histórico e das permissões.
+-- No InnoDB todo índice secundário termina implicitamente na chave primária (id),
+-- então (recorded_at) já atende a paginação por (recorded_at, id).
+
+-- Listagem geral e intervalos de datas (start/end).
+CREATE INDEX idx_access_history_recorded_at ON access_history (recorded_at);
+
+-- Histórico por usuário (listagem, exportação e recomendações).
+CREATE INDEX idx_access_history_user_recorded_at ON access_history (user_id, recorded_at);
+
+-- Histórico por área.
+CREATE INDEX idx_access_history_area_recorded_at ON access_history (area_id, recorded_at);
+
+-- Busca de passagens por cartão.
+CREATE INDEX idx_access_history_card_identifier ON access_history (card_identifier);
+
+-- Verificação de permissão duplicada (existsByUserIdAndAreaIdAndStatus) e filtros por par usuário/área.
+CREATE INDEX idx_user_permissions_user_area_status ON user_permissions (user_id, area_id, status);
@@ -0,0 +1,13 @@
+-- Contadores pré-agregados de uso das áreas por hora e por dia, mantidos na gravação do histórico.
+CREATE TABLE area_usage_rollups (
+    granularity VARCHAR(4) NOT NULL,
+    bucket_start DATETIME(6) NOT NULL,
+    area_id BIGINT NOT NULL,
+    event_type VARCHAR(10) NOT NULL,
+    result VARCHAR(12) NOT NULL,
+    event_count BIGINT NOT NULL,
+    PRIMARY KEY (granularity, bucket_start, area_id, event_type, result)
+) ENGINE = InnoDB;
+
+-- Séries de uma única área.
+CREATE INDEX idx_area_usage_rollups_area ON area_usage_rollups (granularity, area_id, bucket_start);
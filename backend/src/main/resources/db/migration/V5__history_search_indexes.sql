@@ -0,0 +1,10 @@
+-- Índices da busca filtrada do histórico (/api/history/search), todos terminando em recorded_at
+-- para servir a ordenação da paginação sem ordenar em memória.
+
+-- Somente negados/autorizados, geral ou por área.
+CREATE INDEX idx_access_history_result_recorded_at ON access_history (result, recorded_at);
+CREATE INDEX idx_access_history_area_result_recorded_at ON access_history (area_id, result, recorded_at);
+
+-- Passagens de um cartão em ordem cronológica; substitui o índice só por cartão.
+CREATE INDEX idx_access_history_card_recorded_at ON access_history (card_identifier, recorded_at);
+DROP INDEX idx_access_history_card_identifier ON access_history;
@@ -0,0 +1,17 @@
+-- Acessos por (usuário, área), mantidos na gravação do histórico; base das recomendações.
+CREATE TABLE user_area_stats (
+    user_id BIGINT NOT NULL,
+    area_id BIGINT NOT NULL,
+    access_count BIGINT NOT NULL,
+    last_access_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (user_id, area_id)
+) ENGINE = InnoDB;
+
+-- Ranking do usuário lido direto do índice, na ordem das recomendações.
+CREATE INDEX idx_user_area_stats_ranking ON user_area_stats (user_id, access_count, last_access_at);
+
+-- Carga inicial a partir do histórico existente.
+INSERT INTO user_area_stats (user_id, area_id, access_count, last_access_at)
+SELECT user_id, area_id, COUNT(*), MAX(recorded_at)
+FROM access_history
+GROUP BY user_id, area_id;
@@ -0,0 +1,3 @@
+-- Pontuação com decaimento exponencial válida em last_access_at. Linhas existentes ficam nulas
+-- e são calculadas pela aplicação com a meia-vida configurada (UserAreaStats).
+ALTER TABLE user_area_stats ADD COLUMN decay_score DOUBLE NULL;
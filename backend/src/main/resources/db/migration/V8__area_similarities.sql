@@ -0,0 +1,10 @@
+-- Vizinhos mais parecidos de cada área (cosseno sobre os acessos por usuário), recalculados
+-- por inteiro pelo AreaSimilarityRebuild; base da recomendação de permissões.
+CREATE TABLE area_similarities (
+    area_id BIGINT NOT NULL,
+    neighbor_area_id BIGINT NOT NULL,
+    similarity DOUBLE NOT NULL,
+    common_users INT NOT NULL,
+    computed_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (area_id, neighbor_area_id)
+) ENGINE = InnoDB;
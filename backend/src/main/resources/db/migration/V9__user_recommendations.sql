@@ -0,0 +1,27 @@
+-- Execuções do pré-cálculo noturno das recomendações, com duração e vazão.
+CREATE TABLE recommendation_job_runs (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    started_at DATETIME(6) NOT NULL,
+    activity_watermark DATETIME(6) NOT NULL,
+    finished_at DATETIME(6) NULL,
+    status VARCHAR(20) NOT NULL,
+    users_processed BIGINT NOT NULL DEFAULT 0,
+    rows_written BIGINT NOT NULL DEFAULT 0,
+    duration_ms BIGINT NULL,
+    users_per_second DOUBLE NULL,
+    error_message VARCHAR(500) NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Áreas recomendadas de cada usuário por modo, na ordem, com os dados de uso da execução.
+CREATE TABLE user_recommendations (
+    user_id BIGINT NOT NULL,
+    mode VARCHAR(20) NOT NULL,
+    ranking INT NOT NULL,
+    area_id BIGINT NOT NULL,
+    access_count BIGINT NOT NULL,
+    last_access_at DATETIME(6) NOT NULL,
+    decay_score DOUBLE NOT NULL,
+    run_id BIGINT NOT NULL,
+    PRIMARY KEY (user_id, mode, ranking)
+) ENGINE = InnoDB;
@@ -0,0 +1,159 @@
+package com.sysaccessos.backend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.sysaccessos.backend.area.AccessAreaService;
+import com.sysaccessos.backend.area.dto.AccessAreaRequest;
+import com.sysaccessos.backend.auth.dto.RegisterRequest;
+import com.sysaccessos.backend.history.AccessHistoryEvent;
+import com.sysaccessos.backend.history.AccessHistoryWriter;
+import com.sysaccessos.backend.permission.UserPermissionService;
+import com.sysaccessos.backend.permission.dto.UserPermissionRequest;
+import com.sysaccessos.backend.user.User;
+import com.sysaccessos.backend.user.UserManagementService;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Cada listagem lê usuário e área na mesma consulta: o número de comandos SQL emitidos pelo
+ * Hibernate por requisição não depende de quantas linhas, usuários e áreas a página traz.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListingStatementCountTest {
+
+    private static final int USERS = 5;
+    private static final int AREAS = 4;
+    private static final int EVENTS_PER_PAIR = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccessAreaService areaService;
+
+    @Autowired
+    private UserManagementService userManagementService;
+
+    @Autowired
+    private UserPermissionService permissionService;
+
+    @Autowired
+    private AccessHistoryWriter historyWriter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long userId;
+    private String cardIdentifier;
+
+    @BeforeAll
+    void seed() {
+        List<Long> areaIds = new ArrayList<>();
+        for (int area = 0; area < AREAS; area++) {
+            AccessAreaRequest request = new AccessAreaRequest();
+            request.setName("Sala de listagem " + area);
+            request.setDescription("Sala para contagem de consultas");
+            request.setLocation("Bloco L");
+            request.setSecurityLevel("BAIXO");
+            areaIds.add(areaService.create(request).getId());
+        }
+        List<AccessHistoryEvent> events = new ArrayList<>();
+        for (int index = 0; index < USERS; index++) {
+            RegisterRequest request = new RegisterRequest();
+            request.setName("Usuário de listagem " + index);
+            request.setEmail("listagem" + index + "@sysaccessos.local");
+            request.setRegistrationCode(String.valueOf(8_000_000 + index));
+            request.setRole("PROFESSOR");
+            request.setCardIdentifier(String.valueOf(6_000_000 + index));
+            request.setPassword("senha123");
+            User user = userManagementService.createUser(request);
+            for (Long areaId : areaIds) {
+                permissionService.create(permission(user.getId(), areaId));
+                for (int event = 0; event < EVENTS_PER_PAIR; event++) {
+                    events.add(AccessHistoryEvent.of(Clock.systemDefaultZone(), user.getId(), user.getName(), areaId,
+                        null, "ENTRADA", "AUTORIZADO", user.getCardIdentifier(), null));
+                }
+            }
+            userId = user.getId();
+            cardIdentifier = user.getCardIdentifier();
+        }
+        historyWriter.writeBatch(events);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    void historyPageIsOneStatement() throws Exception {
+        assertStatements(get("/api/history").param("size", "50"), 1);
+    }
+
+    @Test
+    void historyPageByUserIsOneStatement() throws Exception {
+        assertStatements(get("/api/history/user/{userId}", userId), 1);
+    }
+
+    @Test
+    void permissionListingIsOneStatement() throws Exception {
+        assertStatements(get("/api/permissions"), 1);
+    }
+
+    @Test
+    void permissionListingByUserIsOneStatement() throws Exception {
+        assertStatements(get("/api/permissions/user/{userId}", userId), 1);
+    }
+
+    @Test
+    void recommendationsOnlyResolveTheCard() throws Exception {
+        // Os acessos por área vêm agregados de user_area_stats via JDBC; pelo Hibernate passa só
+        // a busca do titular do cartão, e nenhuma associação é carregada por linha.
+        mockMvc.perform(get("/api/ai/recommendations").param("cardIdentifier", cardIdentifier))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(AREAS));
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1);
+        assertThat(statistics.getEntityFetchCount()).isZero();
+    }
+
+    private void assertStatements(MockHttpServletRequestBuilder request, long expected) throws Exception {
+        mockMvc.perform(request).andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(expected);
+        assertThat(statistics.getEntityFetchCount()).isZero();
+    }
+
+    private static UserPermissionRequest permission(Long userId, Long areaId) {
+        UserPermissionRequest request = new UserPermissionRequest();
+        request.setUserId(userId);
+        request.setAreaId(areaId);
+        request.setAccessLevel("PADRAO");
+        request.setValidFrom(LocalDate.now().minusDays(1));
+        request.setValidUntil(LocalDate.now().plusDays(1));
+        request.setStatus("ATIVA");
+        return request;
+    }
+}
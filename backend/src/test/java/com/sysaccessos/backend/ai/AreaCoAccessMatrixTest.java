@@ -0,0 +1,120 @@
+package com.sysaccessos.backend.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class AreaCoAccessMatrixTest {
+
+    @Test
+    void cosineOfASmallMatrix() {
+        // Usuário 1: áreas 10 e 20; usuário 2: 10, 20 e 30; usuário 3: só 30. Um acesso por par (peso 1).
+        AreaCoAccessMatrix.Builder builder = new AreaCoAccessMatrix.Builder(new long[] {10, 20, 30}, 6);
+        builder.add(1, 10, 1);
+        builder.add(1, 20, 1);
+        builder.add(2, 10, 1);
+        builder.add(2, 20, 1);
+        builder.add(2, 30, 1);
+        builder.add(3, 30, 1);
+
+        AreaNeighbors neighbors = neighbors(builder.build(), 2, 1);
+
+        assertThat(neighbors.count(0)).isEqualTo(2);
+        assertThat(neighbors.neighbor(0, 0)).isEqualTo(1);
+        assertThat(neighbors.similarity(0, 0)).isCloseTo(1f, within(1e-6f));
+        assertThat(neighbors.commonUsers(0, 0)).isEqualTo(2);
+        assertThat(neighbors.neighbor(0, 1)).isEqualTo(2);
+        assertThat(neighbors.similarity(0, 1)).isCloseTo((float) (1 / 2.0), within(1e-6f));
+        assertThat(neighbors.commonUsers(0, 1)).isEqualTo(1);
+    }
+
+    @Test
+    void parallelTopNMatchesBruteForce() {
+        int areas = 70;
+        int users = 400;
+        int limit = 5;
+        int minCommonUsers = 3;
+        long[] areaIds = new long[areas];
+        for (int area = 0; area < areas; area++) {
+            areaIds[area] = 100 + area * 3L;
+        }
+        double[][] weights = new double[users][areas];
+        AreaCoAccessMatrix.Builder builder = new AreaCoAccessMatrix.Builder(areaIds, 16);
+        Random random = new Random(42);
+        for (int user = 0; user < users; user++) {
+            for (int area = 0; area < areas; area++) {
+                // Áreas próximas são mais usadas pelos mesmos usuários.
+                if (random.nextInt(areas) < 6 + (Math.abs(area - user % areas) < 4 ? 20 : 0)) {
+                    long accesses = 1 + random.nextInt(40);
+                    builder.add(user + 1, areaIds[area], accesses);
+                    weights[user][area] = AreaCoAccessMatrix.weight(accesses);
+                }
+            }
+        }
+
+        AreaNeighbors neighbors = neighbors(builder.build(), limit, minCommonUsers);
+
+        for (int area = 0; area < areas; area++) {
+            List<double[]> expected = new ArrayList<>();
+            for (int other = 0; other < areas; other++) {
+                if (other == area) {
+                    continue;
+                }
+                double dot = 0;
+                double normArea = 0;
+                double normOther = 0;
+                int common = 0;
+                for (int user = 0; user < users; user++) {
+                    dot += weights[user][area] * weights[user][other];
+                    normArea += weights[user][area] * weights[user][area];
+                    normOther += weights[user][other] * weights[user][other];
+                    if (weights[user][area] > 0 && weights[user][other] > 0) {
+                        common++;
+                    }
+                }
+                if (common >= minCommonUsers) {
+                    expected.add(new double[] {other, dot / Math.sqrt(normArea * normOther), common});
+                }
+            }
+            expected.sort(Comparator.comparingDouble((double[] candidate) -> candidate[1]).reversed());
+
+            assertThat(neighbors.count(area)).isEqualTo(Math.min(limit, expected.size()));
+            for (int rank = 0; rank < neighbors.count(area); rank++) {
+                int other = neighbors.neighbor(area, rank);
+                double[] candidate = expected.stream().filter(c -> c[0] == other).findFirst().orElseThrow();
+                assertThat((double) neighbors.similarity(area, rank)).isCloseTo(expected.get(rank)[1], within(1e-5));
+                assertThat((double) neighbors.similarity(area, rank)).isCloseTo(candidate[1], within(1e-5));
+                assertThat(neighbors.commonUsers(area, rank)).isEqualTo((int) candidate[2]);
+            }
+        }
+    }
+
+    @Test
+    void offerKeepsOnlyTheBestInDescendingOrder() {
+        AreaNeighbors neighbors = new AreaNeighbors(1, 3);
+        float[] similarities = {0.2f, 0.9f, 0.5f, 0.1f, 0.7f, 0.95f};
+        for (int i = 0; i < similarities.length; i++) {
+            neighbors.offer(0, i + 1, similarities[i], 1);
+        }
+
+        assertThat(neighbors.count(0)).isEqualTo(3);
+        assertThat(List.of(neighbors.neighbor(0, 0), neighbors.neighbor(0, 1), neighbors.neighbor(0, 2)))
+            .containsExactly(6, 2, 5);
+        assertThat(neighbors.total()).isEqualTo(3);
+    }
+
+    private static AreaNeighbors neighbors(AreaCoAccessMatrix matrix, int limit, int minCommonUsers) {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            return matrix.neighbors(limit, minCommonUsers, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.sysaccessos.backend.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sysaccessos.backend.area.AccessAreaService;
+import com.sysaccessos.backend.area.dto.AccessAreaRequest;
+import com.sysaccessos.backend.auth.dto.RegisterRequest;
+import com.sysaccessos.backend.history.AccessHistoryEvent;
+import com.sysaccessos.backend.history.AccessHistoryWriter;
+import com.sysaccessos.backend.history.AreaUsage;
+import com.sysaccessos.backend.user.User;
+import com.sysaccessos.backend.user.UserManagementService;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Validade das listas pré-calculadas: só de execuções concluídas, e invalidadas por qualquer
+ * gravação posterior ao início da execução, mesmo de um evento com instante antigo.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PrecomputedRecommendationsTest {
+
+    private static final Instant OLD_EVENT = Instant.parse("2024-01-10T08:00:00Z");
+
+    @Autowired
+    private PrecomputedRecommendations store;
+
+    @Autowired
+    private RecommendationPrecompute precompute;
+
+    @Autowired
+    private AccessHistoryWriter historyWriter;
+
+    @Autowired
+    private AccessAreaService areaService;
+
+    @Autowired
+    private UserManagementService userManagementService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long areaId;
+
+    @BeforeAll
+    void createArea() throws InterruptedException {
+        // O pré-cálculo da inicialização troca as listas por faixas de usuários; espera terminar.
+        while (precompute.isRunning()) {
+            Thread.sleep(20);
+        }
+        AccessAreaRequest request = new AccessAreaRequest();
+        request.setName("Sala do pré-cálculo");
+        request.setDescription("Sala para recomendações pré-calculadas");
+        request.setLocation("Bloco P");
+        request.setSecurityLevel("BAIXO");
+        areaId = areaService.create(request).getId();
+    }
+
+    @Test
+    void lateWriteInvalidatesTheList() {
+        User user = userWithStats(0);
+        precomputeFor(user, PrecomputedRecommendations.COMPLETED);
+        assertThat(store.find(user.getId(), RecommendationMode.FREQUENCY)).isPresent();
+
+        // Evento antigo gravado só agora (fila atrasada ou registro manual retroativo).
+        historyWriter.writeBatch(List.of(event(user, OLD_EVENT.minus(Duration.ofDays(1)))));
+
+        assertThat(store.find(user.getId(), RecommendationMode.FREQUENCY)).isEmpty();
+    }
+
+    @Test
+    void listsOfFailedRunsAreIgnored() {
+        User user = userWithStats(1);
+        precomputeFor(user, PrecomputedRecommendations.FAILED);
+
+        assertThat(store.find(user.getId(), RecommendationMode.FREQUENCY)).isEmpty();
+    }
+
+    @Test
+    void listsOfRunningRunsAreIgnored() {
+        User user = userWithStats(2);
+        precomputeFor(user, PrecomputedRecommendations.RUNNING);
+
+        assertThat(store.find(user.getId(), RecommendationMode.FREQUENCY)).isEmpty();
+    }
+
+    // Usuário com um acesso gravado uma hora antes da execução.
+    private User userWithStats(int index) {
+        RegisterRequest request = new RegisterRequest();
+        request.setName("Usuário do pré-cálculo " + index);
+        request.setEmail("precalculo" + index + "@sysaccessos.local");
+        request.setRegistrationCode(String.valueOf(9_700_000 + index));
+        request.setRole("ALUNO");
+        request.setCardIdentifier(String.valueOf(9_600_000 + index));
+        request.setPassword("senha123");
+        User user = userManagementService.createUser(request);
+        historyWriter.writeBatch(List.of(event(user, OLD_EVENT)));
+        jdbcTemplate.update("UPDATE user_area_stats SET updated_at = ? WHERE user_id = ?",
+            Timestamp.from(Instant.now().minus(Duration.ofHours(1))), user.getId());
+        return user;
+    }
+
+    private void precomputeFor(User user, String status) {
+        Instant startedAt = Instant.now();
+        long runId = store.startRun(startedAt, startedAt.minus(Duration.ofMinutes(1)));
+        AreaUsage usage = new AreaUsage(areaId, null, 1L, OLD_EVENT.atOffset(ZoneOffset.UTC), 1.0);
+        store.replaceUsers(runId, user.getId(), user.getId(),
+            List.of(new PrecomputedRecommendations.Row(user.getId(), RecommendationMode.FREQUENCY, 0, usage)));
+        if (!PrecomputedRecommendations.RUNNING.equals(status)) {
+            store.finishRun(runId, status, Instant.now(), 1, 1, 1, null);
+        }
+    }
+
+    private AccessHistoryEvent event(User user, Instant recordedAt) {
+        return AccessHistoryEvent.of(Clock.fixed(recordedAt, ZoneOffset.UTC), user.getId(), user.getName(), areaId,
+            null, "ENTRADA", "AUTORIZADO", user.getCardIdentifier(), null);
+    }
+}
@@ -0,0 +1,131 @@
+package com.sysaccessos.backend.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sysaccessos.backend.history.UserAreaStatsUpdatedEvent;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class RecommendationCacheTest {
+
+    private static final int WAITERS = 8;
+
+    private final RecommendationCache cache = new RecommendationCache(100, Duration.ofMinutes(5));
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(WAITERS);
+        try {
+            Future<List<String>> first = pool.submit(() -> cache.get(1L, "q", 0, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return List.of("Laboratório");
+            }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            List<Future<List<String>>> others = new ArrayList<>();
+            for (int i = 1; i < WAITERS; i++) {
+                others.add(pool.submit(() -> cache.get(1L, "q", 0, () -> {
+                    loads.incrementAndGet();
+                    return List.of("outro cálculo");
+                })));
+            }
+            // Os demais já estão esperando o cálculo em andamento quando ele termina.
+            while (cache.stats().getCoalesced() < WAITERS - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).containsExactly("Laboratório");
+            for (Future<List<String>> other : others) {
+                assertThat(other.get(5, TimeUnit.SECONDS)).containsExactly("Laboratório");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(cache.get(1L, "q", 0, List::of)).containsExactly("Laboratório");
+        assertThat(cache.stats().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void errorInTheLoaderReachesEveryWaiter() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<String>> first = pool.submit(() -> cache.get(1L, "q", 0, () -> {
+                loading.countDown();
+                await(release);
+                throw new StackOverflowError("cálculo estourou");
+            }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<List<String>> waiter = pool.submit(() -> cache.<String>get(1L, "q", 0, List::of));
+            while (cache.stats().getCoalesced() < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class).hasCauseInstanceOf(StackOverflowError.class);
+            assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class).hasCauseInstanceOf(StackOverflowError.class);
+        } finally {
+            pool.shutdownNow();
+        }
+        // Nada fica em andamento: a próxima falta calcula de novo.
+        assertThat(cache.get(1L, "q", 0, () -> List.of("recalculado"))).containsExactly("recalculado");
+    }
+
+    @Test
+    void statsUpdateEventInvalidatesTheUsers() {
+        cache.get(1L, "q", 0, () -> List.of("antes"));
+
+        cache.onUserAreaStatsUpdated(new UserAreaStatsUpdatedEvent(Set.of(1L)));
+
+        assertThat(cache.get(1L, "q", 0, () -> List.of("depois"))).containsExactly("depois");
+        assertThat(cache.stats().getInvalidations()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidationDiscardsTheUserEntries() {
+        cache.get(1L, "q", 0, () -> List.of("antes"));
+        cache.get(2L, "q", 0, () -> List.of("outro usuário"));
+
+        cache.invalidate(List.of(1L));
+
+        assertThat(cache.get(1L, "q", 0, () -> List.of("depois"))).containsExactly("depois");
+        assertThat(cache.get(2L, "q", 0, () -> List.of("recalculado"))).containsExactly("outro usuário");
+    }
+
+    @Test
+    void versionSeparatesEntries() {
+        cache.get(1L, "q", 1, () -> List.of("versão 1"));
+
+        assertThat(cache.get(1L, "q", 2, () -> List.of("versão 2"))).containsExactly("versão 2");
+        assertThat(cache.get(1L, "q", 1, List::of)).containsExactly("versão 1");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.sysaccessos.backend.area;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sysaccessos.backend.area.dto.AccessAreaRequest;
+import com.sysaccessos.backend.area.dto.AreaMovementRequest;
+import com.sysaccessos.backend.area.dto.AreaMovementResponse;
+import com.sysaccessos.backend.auth.dto.RegisterRequest;
+import com.sysaccessos.backend.permission.UserPermissionService;
+import com.sysaccessos.backend.permission.dto.UserPermissionRequest;
+import com.sysaccessos.backend.user.User;
+import com.sysaccessos.backend.user.UserManagementService;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Milhares de passagens simultâneas em poucas salas disputadas: nenhuma transição pode se
+ * perder nem deixar duas pessoas na mesma sala.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AccessAreaMovementServiceConcurrencyTest {
+
+    private static final int HOT_AREAS = 3;
+    private static final int CARDS = 40;
+    private static final int TAPS_PER_CARD = 100;
+
+    @Autowired
+    private AccessAreaMovementService movementService;
+
+    @Autowired
+    private AccessAreaService areaService;
+
+    @Autowired
+    private AccessAreaRepository areaRepository;
+
+    @Autowired
+    private UserManagementService userManagementService;
+
+    @Autowired
+    private UserPermissionService permissionService;
+
+    @Test
+    void parallelTapsOnHotAreasNeverLoseOrDuplicateOccupancy() throws Exception {
+        List<Long> areaIds = new ArrayList<>();
+        Map<Long, Long> initialVersions = new HashMap<>();
+        for (int area = 0; area < HOT_AREAS; area++) {
+            Long id = areaService.create(area("Sala disputada " + area)).getId();
+            areaIds.add(id);
+            initialVersions.put(id, areaRepository.findById(id).orElseThrow().getVersion());
+        }
+        List<String> cards = new ArrayList<>();
+        for (int card = 0; card < CARDS; card++) {
+            String cardIdentifier = String.valueOf(5_000_000 + card);
+            User user = userManagementService.createUser(user(card, cardIdentifier));
+            for (Long areaId : areaIds) {
+                permissionService.create(permission(user.getId(), areaId));
+            }
+            cards.add(cardIdentifier);
+        }
+
+        Map<Long, AtomicInteger> transitions = new ConcurrentHashMap<>();
+        Map<Long, AtomicInteger> entries = new ConcurrentHashMap<>();
+        areaIds.forEach(id -> {
+            transitions.put(id, new AtomicInteger());
+            entries.put(id, new AtomicInteger());
+        });
+        AtomicInteger occupiedRejections = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        Map<String, Map<Long, Boolean>> inside = new ConcurrentHashMap<>();
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (String card : cards) {
+            workers.add(pool.submit(() -> {
+                Map<Long, Boolean> state = new HashMap<>();
+                start.await();
+                for (int tap = 0; tap < TAPS_PER_CARD; tap++) {
+                    Long areaId = areaIds.get(ThreadLocalRandom.current().nextInt(areaIds.size()));
+                    try {
+                        AreaMovementResponse response = movementService.move(movement(card, areaId));
+                        boolean wasInside = state.getOrDefault(areaId, false);
+                        // Cada cartão alterna entrada e saída em cada sala, começando pela entrada.
+                        assertThat(response.getMovementType()).isEqualTo(wasInside ? "SAIDA" : "ENTRADA");
+                        state.put(areaId, !wasInside);
+                        transitions.get(areaId).incrementAndGet();
+                        if (!wasInside) {
+                            entries.get(areaId).incrementAndGet();
+                        }
+                    } catch (ResponseStatusException ex) {
+                        if (ex.getStatusCode() == HttpStatus.CONFLICT
+                            && "Sala em uso por outro cartão.".equals(ex.getReason())) {
+                            assertThat(state.getOrDefault(areaId, false)).isFalse();
+                            occupiedRejections.incrementAndGet();
+                        } else {
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                }
+                inside.put(card, state);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        pool.shutdown();
+
+        assertThat(conflicts).hasValue(0);
+        assertThat(occupiedRejections.get()).isPositive();
+        for (Long areaId : areaIds) {
+            AccessArea area = areaRepository.findById(areaId).orElseThrow();
+            List<String> occupants = cards.stream()
+                .filter(card -> inside.get(card).getOrDefault(areaId, false))
+                .toList();
+            int exits = transitions.get(areaId).get() - entries.get(areaId).get();
+
+            // Cada transição confirmada gravou uma versão nova da sala: nenhuma foi sobrescrita.
+            assertThat(area.getVersion()).isEqualTo(initialVersions.get(areaId) + transitions.get(areaId).get());
+            assertThat(occupants).hasSizeLessThanOrEqualTo(1);
+            assertThat(entries.get(areaId).get() - exits).isEqualTo(occupants.size());
+            assertThat(area.isInUse()).isEqualTo(!occupants.isEmpty());
+            assertThat(area.getOccupantCardIdentifier()).isEqualTo(occupants.isEmpty() ? null : occupants.get(0));
+        }
+    }
+
+    private static AccessAreaRequest area(String name) {
+        AccessAreaRequest request = new AccessAreaRequest();
+        request.setName(name);
+        request.setDescription("Sala de teste de concorrência");
+        request.setLocation("Bloco T");
+        request.setSecurityLevel("BAIXO");
+        request.setActive(true);
+        return request;
+    }
+
+    private static RegisterRequest user(int index, String cardIdentifier) {
+        RegisterRequest request = new RegisterRequest();
+        request.setName("Usuário concorrente " + index);
+        request.setEmail("concorrente" + index + "@sysaccessos.local");
+        request.setRegistrationCode(String.valueOf(7_000_000 + index));
+        request.setRole("ALUNO");
+        request.setCardIdentifier(cardIdentifier);
+        request.setPassword("senha123");
+        return request;
+    }
+
+    private static UserPermissionRequest permission(Long userId, Long areaId) {
+        UserPermissionRequest request = new UserPermissionRequest();
+        request.setUserId(userId);
+        request.setAreaId(areaId);
+        request.setAccessLevel("PADRAO");
+        request.setValidFrom(LocalDate.now().minusDays(1));
+        request.setValidUntil(LocalDate.now().plusDays(1));
+        request.setStatus("ATIVA");
+        return request;
+    }
+
+    private static AreaMovementRequest movement(String cardIdentifier, Long areaId) {
+        AreaMovementRequest request = new AreaMovementRequest();
+        request.setCardIdentifier(cardIdentifier);
+        request.setAreaId(areaId);
+        return request;
+    }
+}
@@ -0,0 +1,112 @@
+package com.sysaccessos.backend.area;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sysaccessos.backend.area.dto.AccessAreaRequest;
+import com.sysaccessos.backend.auth.dto.RegisterRequest;
+import com.sysaccessos.backend.history.AccessHistoryEvent;
+import com.sysaccessos.backend.history.AccessHistoryWriter;
+import com.sysaccessos.backend.user.User;
+import com.sysaccessos.backend.user.UserManagementService;
+import java.time.Clock;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A remoção de áreas depende da chave estrangeira de {@code user_area_stats}: áreas com
+ * histórico, inclusive ainda na fila do gravador, não são removidas, e eventos de uma área já
+ * removida não são gravados.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AccessAreaServiceDeleteTest {
+
+    @Autowired
+    private AccessAreaService areaService;
+
+    @Autowired
+    private AccessAreaRepository areaRepository;
+
+    @Autowired
+    private UserManagementService userManagementService;
+
+    @Autowired
+    private AccessHistoryWriter historyWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void areaWithHistoryIsNotDeleted() {
+        Long areaId = areaService.create(area("Sala de remoção com histórico")).getId();
+        User user = userManagementService.createUser(user(0));
+        historyWriter.writeBatch(List.of(event(user, areaId)));
+
+        assertThatThrownBy(() -> areaService.delete(areaId))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        assertThat(areaRepository.existsById(areaId)).isTrue();
+    }
+
+    @Test
+    void queuedEventBlocksTheDeletionAndIsKept() {
+        Long areaId = areaService.create(area("Sala de remoção com evento na fila")).getId();
+        User user = userManagementService.createUser(user(2));
+        // Fora de transação o evento vai direto para a fila do gravador assíncrono.
+        historyWriter.enqueue(event(user, areaId));
+
+        assertThatThrownBy(() -> areaService.delete(areaId))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        assertThat(areaRepository.existsById(areaId)).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM access_history WHERE area_id = ?",
+            Long.class, areaId)).isEqualTo(1);
+    }
+
+    @Test
+    void eventsOfDeletedAreaAreRejected() {
+        Long areaId = areaService.create(area("Sala de remoção sem histórico")).getId();
+        User user = userManagementService.createUser(user(1));
+
+        areaService.delete(areaId);
+
+        assertThat(areaRepository.existsById(areaId)).isFalse();
+        // Evento que ainda estava na fila do gravador quando a área foi removida.
+        assertThatThrownBy(() -> historyWriter.writeBatch(List.of(event(user, areaId))))
+            .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private static AccessHistoryEvent event(User user, Long areaId) {
+        return AccessHistoryEvent.of(Clock.systemDefaultZone(), user.getId(), user.getName(), areaId, null,
+            "ENTRADA", "AUTORIZADO", user.getCardIdentifier(), null);
+    }
+
+    private static AccessAreaRequest area(String name) {
+        AccessAreaRequest request = new AccessAreaRequest();
+        request.setName(name);
+        request.setDescription("Sala de teste de remoção");
+        request.setLocation("Bloco R");
+        request.setSecurityLevel("BAIXO");
+        request.setActive(true);
+        return request;
+    }
+
+    private static RegisterRequest user(int index) {
+        RegisterRequest request = new RegisterRequest();
+        request.setName("Usuário de remoção " + index);
+        request.setEmail("remocao" + index + "@sysaccessos.local");
+        request.setRegistrationCode(String.valueOf(9_100_000 + index));
+        request.setRole("ALUNO");
+        request.setCardIdentifier(String.valueOf(9_000_000 + index));
+        request.setPassword("senha123");
+        return request;
+    }
+}
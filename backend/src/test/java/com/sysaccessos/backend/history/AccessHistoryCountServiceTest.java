@@ -0,0 +1,206 @@
+package com.sysaccessos.backend.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sysaccessos.backend.area.AccessAreaService;
+import com.sysaccessos.backend.area.dto.AccessAreaRequest;
+import com.sysaccessos.backend.auth.dto.RegisterRequest;
+import com.sysaccessos.backend.history.dto.AccessHistoryDto;
+import com.sysaccessos.backend.history.dto.AccessHistoryHistogramDto;
+import com.sysaccessos.backend.history.dto.AccessHistorySearchCriteria;
+import com.sysaccessos.backend.history.dto.HistogramBucketDto;
+import com.sysaccessos.backend.user.User;
+import com.sysaccessos.backend.user.UserManagementService;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * O banco guarda {@code recorded_at} na hora UTC (como o MySQL com {@code serverTimezone=UTC});
+ * com a JVM em outro fuso, os baldes do histograma continuam alinhados aos instantes reais, e
+ * busca, listagem por período, exportação, contagem e histograma usam o mesmo período semiaberto.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AccessHistoryCountServiceTest {
+
+    private static final List<Instant> RECORDED = List.of(
+        Instant.parse("2031-03-10T10:05:00Z"),
+        Instant.parse("2031-03-10T10:50:00Z"),
+        Instant.parse("2031-03-10T12:30:00Z"),
+        // 23:55 e 00:05 em Asia/Kolkata (+05:30): dias diferentes nesse fuso.
+        Instant.parse("2031-03-10T18:25:00Z"),
+        Instant.parse("2031-03-10T18:35:00Z"));
+
+    private final TimeZone originalZone = TimeZone.getDefault();
+
+    @Autowired
+    private AccessHistoryCountService countService;
+
+    @Autowired
+    private AccessHistoryService historyService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AccessHistoryWriter historyWriter;
+
+    @Autowired
+    private AccessAreaService areaService;
+
+    @Autowired
+    private UserManagementService userManagementService;
+
+    private Long areaId;
+
+    private Long userId;
+
+    @BeforeAll
+    void seed() {
+        TimeZone.setDefault(TimeZone.getTimeZone("America/Sao_Paulo"));
+        AccessAreaRequest area = new AccessAreaRequest();
+        area.setName("Sala do histograma");
+        area.setDescription("Sala para contagens por período");
+        area.setLocation("Bloco H");
+        area.setSecurityLevel("BAIXO");
+        areaId = areaService.create(area).getId();
+
+        RegisterRequest request = new RegisterRequest();
+        request.setName("Usuário do histograma");
+        request.setEmail("histograma@sysaccessos.local");
+        request.setRegistrationCode("9300000");
+        request.setRole("ALUNO");
+        request.setCardIdentifier("9200000");
+        request.setPassword("senha123");
+        User user = userManagementService.createUser(request);
+        userId = user.getId();
+
+        List<AccessHistoryEvent> events = new ArrayList<>();
+        for (Instant recordedAt : RECORDED) {
+            events.add(AccessHistoryEvent.of(Clock.fixed(recordedAt, ZoneOffset.UTC), user.getId(), user.getName(),
+                areaId, null, "ENTRADA", "AUTORIZADO", user.getCardIdentifier(), null));
+        }
+        historyWriter.writeBatch(events);
+    }
+
+    @AfterAll
+    void restoreZone() {
+        TimeZone.setDefault(originalZone);
+    }
+
+    @Test
+    void hourlyBucketsFollowTheInstantsNotTheJvmZone() {
+        AccessHistoryHistogramDto histogram = countService.histogram(
+            criteria("2031-03-10T10:00:00Z", "2031-03-10T13:00:00Z"), HistogramBucket.HOUR, "UTC");
+
+        assertThat(histogram.getBuckets()).extracting(HistogramBucketDto::getCount).containsExactly(2L, 0L, 1L);
+        assertThat(histogram.getBuckets().get(0).getStart().toInstant())
+            .isEqualTo(Instant.parse("2031-03-10T10:00:00Z"));
+        assertThat(histogram.getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void dailyBucketsSplitAtMidnightOfAHalfHourZone() {
+        AccessHistoryHistogramDto histogram = countService.histogram(
+            criteria("2031-03-10T00:00:00+05:30", "2031-03-12T00:00:00+05:30"), HistogramBucket.DAY, "Asia/Kolkata");
+
+        assertThat(histogram.getBuckets()).extracting(HistogramBucketDto::getCount).containsExactly(4L, 1L);
+    }
+
+    @Test
+    void searchAndCountShareTheHalfOpenPeriod() {
+        AccessHistorySearchCriteria criteria = criteria("2031-03-10T10:05:00Z", "2031-03-10T12:30:00Z");
+
+        List<AccessHistoryDto> found = historyService.search(criteria, null, 50).getItems();
+
+        assertThat(countService.count(criteria).getCount()).isEqualTo(2);
+        assertThat(found).extracting(dto -> dto.getRecordedAt().toInstant())
+            .containsExactly(RECORDED.get(1), RECORDED.get(0));
+    }
+
+    @Test
+    void listingAndExportExcludeTheEndLikeTheCount() throws IOException {
+        OffsetDateTime start = OffsetDateTime.parse("2031-03-10T10:05:00Z");
+        OffsetDateTime end = OffsetDateTime.parse("2031-03-10T12:30:00Z");
+
+        List<AccessHistoryDto> listed = historyService.findBetween(start, end, null, 50).getItems();
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        new AccessHistoryExportService(new JdbcTemplate(withoutStreamingFetch(dataSource)), objectMapper)
+            .export(start, end, userId, AccessHistoryExportService.Format.NDJSON, exported);
+
+        assertThat(listed).extracting(dto -> dto.getRecordedAt().toInstant())
+            .containsExactly(RECORDED.get(1), RECORDED.get(0));
+        assertThat(exported.toString(StandardCharsets.UTF_8).lines()).hasSize(2);
+        // Períodos adjacentes não se sobrepõem: o evento de 12:30 fica só no seguinte.
+        assertThat(historyService.findBetween(end, end.plusHours(1), null, 50).getItems())
+            .extracting(dto -> dto.getRecordedAt().toInstant())
+            .containsExactly(RECORDED.get(2));
+    }
+
+    // O H2 recusa o fetch size Integer.MIN_VALUE que ativa a leitura em fluxo do Connector/J.
+    private static DataSource withoutStreamingFetch(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection connection = super.getConnection();
+                return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (!(result instanceof PreparedStatement statement)) {
+                            return result;
+                        }
+                        return Proxy.newProxyInstance(getClass().getClassLoader(),
+                            new Class<?>[] {PreparedStatement.class}, (inner, innerMethod, innerArgs) ->
+                                innerMethod.getName().equals("setFetchSize") && (int) innerArgs[0] < 0
+                                    ? null
+                                    : invoke(statement, innerMethod, innerArgs));
+                    });
+            }
+        };
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private AccessHistorySearchCriteria criteria(String start, String end) {
+        AccessHistorySearchCriteria criteria = new AccessHistorySearchCriteria();
+        criteria.setAreaId(areaId);
+        criteria.setStart(OffsetDateTime.parse(start));
+        criteria.setEnd(OffsetDateTime.parse(end));
+        return criteria;
+    }
+}
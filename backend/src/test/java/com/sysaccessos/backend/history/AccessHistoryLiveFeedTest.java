@@ -0,0 +1,49 @@
+package com.sysaccessos.backend.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.sysaccessos.backend.history.dto.AccessHistoryDto;
+import com.sysaccessos.backend.live.LiveEventBroadcaster;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class AccessHistoryLiveFeedTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-06-03T14:00:00Z"), ZoneOffset.UTC);
+
+    private final LiveEventBroadcaster broadcaster = mock(LiveEventBroadcaster.class);
+    private final AccessHistoryLiveFeed feed = new AccessHistoryLiveFeed(broadcaster);
+
+    @Test
+    void publishesTheNamesCarriedByTheEvent() {
+        when(broadcaster.hasSubscribers()).thenReturn(true);
+
+        feed.publish(List.of(AccessHistoryEvent.of(CLOCK, 7L, "Ana", 3L, "Laboratório 3", "ENTRADA", "AUTORIZADO",
+            "C7", null)));
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(broadcaster).publish(eq(LiveEventBroadcaster.ACCESS), payload.capture());
+        AccessHistoryDto dto = (AccessHistoryDto) payload.getValue();
+        assertThat(dto.getUserName()).isEqualTo("Ana");
+        assertThat(dto.getAreaName()).isEqualTo("Laboratório 3");
+        assertThat(dto.getRecordedAt().toInstant()).isEqualTo(CLOCK.instant());
+    }
+
+    @Test
+    void withoutSubscribersNothingIsPublished() {
+        feed.publish(List.of(AccessHistoryEvent.of(CLOCK, 7L, "Ana", 3L, "Laboratório 3", "ENTRADA", "AUTORIZADO",
+            "C7", null)));
+
+        verify(broadcaster, never()).publish(any(), any());
+    }
+}
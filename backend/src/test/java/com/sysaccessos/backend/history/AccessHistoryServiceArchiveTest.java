@@ -0,0 +1,112 @@
+package com.sysaccessos.backend.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.sysaccessos.backend.area.AccessAreaRepository;
+import com.sysaccessos.backend.history.dto.AccessHistoryDto;
+import com.sysaccessos.backend.history.dto.AccessHistoryPageDto;
+import com.sysaccessos.backend.user.UserRepository;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Páginas do histórico intercalando o banco (simulado com a mesma regra de cursor da consulta)
+ * e um segmento do arquivo frio, com empate de instante na fronteira entre as duas fontes.
+ */
+class AccessHistoryServiceArchiveTest {
+
+    private static final Instant BASE = Instant.parse("2023-04-01T00:00:00Z");
+    private static final int ARCHIVED = 120;
+    private static final int LIVE = 80;
+
+    @TempDir
+    Path directory;
+
+    private final AccessHistoryRepository historyRepository = mock(AccessHistoryRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final List<AccessHistoryDto> liveRows = new ArrayList<>();
+    private AccessHistoryService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        HistoryArchive archive = new HistoryArchive(directory);
+        Path target = archive.segmentPath(YearMonth.of(2023, 4));
+        try (HistorySegmentWriter writer = new HistorySegmentWriter(target)) {
+            for (int id = 1; id <= ARCHIVED; id++) {
+                writer.add(id, 1, 1, "ENTRADA", "AUTORIZADO", "C1", null, instantOf(id));
+            }
+            writer.finish();
+        }
+        archive.register(HistorySegment.open(target));
+
+        // O primeiro registro do banco tem o mesmo instante do último arquivado.
+        for (int id = ARCHIVED + 1; id <= ARCHIVED + LIVE; id++) {
+            liveRows.add(new AccessHistoryDto((long) id, 1L, null, 1L, null, "ENTRADA", "AUTORIZADO", "C1", null,
+                instantOf(id - 1).atOffset(ZoneOffset.UTC)));
+        }
+        liveRows.sort(Comparator.comparing((AccessHistoryDto dto) -> dto.getRecordedAt().toInstant())
+            .thenComparing(AccessHistoryDto::getId)
+            .reversed());
+        when(historyRepository.findPage(any(), anyLong(), any())).thenAnswer(invocation -> {
+            OffsetDateTime cursorAt = invocation.getArgument(0);
+            long cursorId = invocation.getArgument(1);
+            Pageable pageable = invocation.getArgument(2);
+            return liveRows.stream()
+                .filter(dto -> dto.getRecordedAt().isBefore(cursorAt)
+                    || (dto.getRecordedAt().isEqual(cursorAt) && dto.getId() < cursorId))
+                .limit(pageable.getPageSize())
+                .toList();
+        });
+
+        service = new AccessHistoryService(historyRepository, userRepository,
+            mock(AccessAreaRepository.class), mock(AreaUsageRollups.class), mock(UserAreaStats.class), archive,
+            mock(AccessHistoryLiveFeed.class), 50, 200);
+    }
+
+    @Test
+    void pagesMergeDatabaseAndArchiveWithoutGapsOrRepeats() {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            AccessHistoryPageDto page = service.findPage(cursor, 30);
+            page.getItems().forEach(item -> ids.add(item.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<Long> expected = new ArrayList<>();
+        for (long id = ARCHIVED + LIVE; id >= 1; id--) {
+            expected.add(id);
+        }
+        assertThat(ids).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void pageNewerThanTheArchiveDoesNotReadIt() {
+        AccessHistoryPageDto page = service.findPage(null, 10);
+
+        assertThat(page.getItems()).extracting(AccessHistoryDto::getId).first().isEqualTo((long) ARCHIVED + LIVE);
+        // Os nomes dos registros arquivados só são buscados quando o segmento é lido.
+        verify(userRepository, never()).findAllById(any());
+    }
+
+    private static Instant instantOf(int id) {
+        return BASE.plusSeconds(id * 60L);
+    }
+}
@@ -0,0 +1,104 @@
+package com.sysaccessos.backend.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class AccessHistoryWriterTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-05-10T12:00:00Z"), ZoneOffset.UTC);
+
+    private final AreaUsageRollups rollups = mock(AreaUsageRollups.class);
+    private final List<Long> written = new ArrayList<>();
+    private final AccessHistoryWriter writer = new AccessHistoryWriter(mock(JdbcTemplate.class),
+        mock(PlatformTransactionManager.class), rollups, mock(UserAreaStats.class),
+        mock(AccessHistoryLiveFeed.class), 100, 10, 10, 10, 40, 0);
+
+    @Test
+    void splitsFailingBatchAndDiscardsOnlyEventsThatFailAlone() {
+        // A área 99 simula uma violação permanente (p. ex. chave estrangeira) em qualquer lote que a contenha.
+        doAnswer(invocation -> {
+            List<AccessHistoryEvent> events = invocation.getArgument(0);
+            if (events.stream().anyMatch(event -> event.areaId() == 99L)) {
+                throw new DataIntegrityViolationException("area_id inexistente");
+            }
+            events.forEach(event -> written.add(event.userId()));
+            return null;
+        }).when(rollups).record(anyList());
+
+        List<AccessHistoryEvent> batch = new ArrayList<>();
+        for (long user = 1; user <= 7; user++) {
+            batch.add(AccessHistoryEvent.of(CLOCK, user, null, user == 4 ? 99L : 1L, null, "ENTRADA", "AUTORIZADO",
+                "C" + user, null));
+        }
+
+        assertThat(writer.write(batch)).isEmpty();
+
+        assertThat(written).containsExactlyInAnyOrder(1L, 2L, 3L, 5L, 6L, 7L);
+        assertThat(writer.discardedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void transientFailuresRetryTheWholeBatchWithoutDiscarding() {
+        AtomicInteger failures = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (failures.getAndIncrement() < 3) {
+                throw failures.get() % 2 == 0
+                    ? new CannotGetJdbcConnectionException("banco fora do ar")
+                    : new TransientDataAccessResourceException("bloqueio expirou");
+            }
+            List<AccessHistoryEvent> events = invocation.getArgument(0);
+            events.forEach(event -> written.add(event.userId()));
+            return null;
+        }).when(rollups).record(anyList());
+
+        assertThat(writer.write(batch(5))).isEmpty();
+
+        assertThat(written).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(failures).hasValue(4);
+        assertThat(writer.discardedCount()).isZero();
+    }
+
+    @Test
+    void afterTheShutdownDeadlineTransientFailuresReturnTheBatchUnwritten() {
+        doAnswer(invocation -> {
+            throw new CannotGetJdbcConnectionException("banco fora do ar");
+        }).when(rollups).record(anyList());
+        // Sem ter sido iniciado, stop() só marca o prazo (zero) e esvazia a fila vazia.
+        writer.stop();
+
+        List<AccessHistoryEvent> batch = batch(3);
+        assertThat(writer.write(batch)).containsExactlyElementsOf(batch);
+        assertThat(written).isEmpty();
+    }
+
+    @Test
+    void eventTimeComesFromClock() {
+        AccessHistoryEvent event = AccessHistoryEvent.of(CLOCK, 1L, null, 1L, null, "ENTRADA", "AUTORIZADO", "C1",
+            null);
+
+        assertThat(event.recordedAt().toInstant()).isEqualTo(CLOCK.instant());
+    }
+
+    private static List<AccessHistoryEvent> batch(int size) {
+        List<AccessHistoryEvent> batch = new ArrayList<>();
+        for (long user = 1; user <= size; user++) {
+            batch.add(AccessHistoryEvent.of(CLOCK, user, null, 1L, null, "ENTRADA", "AUTORIZADO", "C" + user, null));
+        }
+        return batch;
+    }
+}
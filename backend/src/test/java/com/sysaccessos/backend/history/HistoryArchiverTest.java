@@ -0,0 +1,132 @@
+package com.sysaccessos.backend.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Conversão de uma tabela de arquivo da retenção em segmento. O {@code JdbcTemplate} é
+ * simulado: a listagem em {@code information_schema} e a leitura em fluxo são do MySQL.
+ */
+class HistoryArchiverTest {
+
+    private static final String TABLE = "access_history_archive_p202301";
+    private static final Instant BASE = Instant.parse("2023-01-01T03:00:00.000123Z");
+
+    @TempDir
+    Path directory;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<ArchivedHistoryRow> rows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        for (int i = 0; i < 500; i++) {
+            rows.add(new ArchivedHistoryRow(10_000 + i, 1 + i % 4, 20 + i % 3, i % 2 == 0 ? "ENTRADA" : "SAIDA",
+                "AUTORIZADO", "C" + (1 + i % 4), i % 5 == 0 ? "nota " + i : null, BASE.plusSeconds(i * 90L)));
+        }
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(TABLE));
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ArchivedHistoryRow row : rows) {
+                handler.processRow(resultSet(row));
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void archivesTheTableIntoASegmentAndKeepsTheTableByDefault() {
+        when(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + TABLE, Integer.class)).thenReturn(rows.size());
+        HistoryArchive archive = new HistoryArchive(directory);
+        HistoryArchiver archiver = new HistoryArchiver(jdbcTemplate, archive, true, false);
+
+        archiver.archiveTables();
+        // Na próxima execução a tabela mantida já corresponde a um segmento registrado.
+        archiver.archiveTables();
+
+        assertThat(archive.isRegistered(archive.segmentPath(YearMonth.of(2023, 1)))).isTrue();
+        verify(jdbcTemplate, never()).execute(startsWith("DROP"));
+        verify(jdbcTemplate, times(1)).queryForObject("SELECT COUNT(*) FROM " + TABLE, Integer.class);
+
+        // Um novo início lê o segmento do disco, com todas as colunas.
+        HistoryArchive reloaded = new HistoryArchive(directory);
+        reloaded.load();
+        assertThat(reloaded.newestFirst(HistoryCursor.FIRST, null, null, null, Integer.MAX_VALUE))
+            .containsExactlyElementsOf(rows.stream()
+                .sorted(Comparator.comparing(ArchivedHistoryRow::recordedAt).reversed())
+                .toList());
+    }
+
+    @Test
+    void dropsTheTableOnlyWhenEnabledAndTheSegmentMatches() {
+        when(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + TABLE, Integer.class)).thenReturn(rows.size());
+        HistoryArchive archive = new HistoryArchive(directory.toAbsolutePath());
+
+        new HistoryArchiver(jdbcTemplate, archive, true, true).archiveTables();
+
+        assertThat(archive.isRegistered(archive.segmentPath(YearMonth.of(2023, 1)))).isTrue();
+        verify(jdbcTemplate).execute("DROP TABLE " + TABLE);
+    }
+
+    @Test
+    void segmentWithADifferentRowCountKeepsTheTable() {
+        // A tabela ganhou linhas depois de um segmento gerado por uma execução anterior.
+        when(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + TABLE, Integer.class)).thenReturn(rows.size() + 1);
+        HistoryArchive archive = new HistoryArchive(directory.toAbsolutePath());
+
+        new HistoryArchiver(jdbcTemplate, archive, true, true).archiveTables();
+
+        Path segment = archive.segmentPath(YearMonth.of(2023, 1));
+        assertThat(Files.exists(segment)).isTrue();
+        assertThat(archive.isRegistered(segment)).isFalse();
+        verify(jdbcTemplate, never()).execute(startsWith("DROP"));
+    }
+
+    @Test
+    void droppingTablesRequiresAbsoluteDirectory() {
+        HistoryArchive relative = new HistoryArchive(Path.of("data/history-archive"));
+
+        assertThatThrownBy(() -> new HistoryArchiver(jdbcTemplate, relative, true, true))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ResultSet resultSet(ArchivedHistoryRow row) throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getLong("id")).thenReturn(row.id());
+        when(resultSet.getLong("user_id")).thenReturn(row.userId());
+        when(resultSet.getLong("area_id")).thenReturn(row.areaId());
+        when(resultSet.getString("event_type")).thenReturn(row.eventType());
+        when(resultSet.getString("result")).thenReturn(row.result());
+        when(resultSet.getString("card_identifier")).thenReturn(row.cardIdentifier());
+        when(resultSet.getString("notes")).thenReturn(row.notes());
+        when(resultSet.getTimestamp("recorded_at")).thenReturn(Timestamp.from(row.recordedAt()));
+        return resultSet;
+    }
+}
@@ -0,0 +1,119 @@
+package com.sysaccessos.backend.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HistorySegmentTest {
+
+    private static final Instant BASE = Instant.parse("2023-04-01T00:00:00.123456Z");
+    // Mais de dois blocos, para a leitura atravessar as bordas entre eles.
+    private static final int ROWS = HistorySegment.BLOCK_SIZE * 2 + 1000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackEveryColumnNewestFirst() throws IOException {
+        List<ArchivedHistoryRow> rows = rows();
+        HistorySegment segment = write(rows);
+
+        List<ArchivedHistoryRow> read = new ArrayList<>();
+        segment.collectNewestFirst(HistoryCursor.FIRST, null, null, null, Integer.MAX_VALUE, read);
+
+        assertThat(segment.rowCount()).isEqualTo(ROWS);
+        assertThat(segment.oldest()).isEqualTo(rows.get(0).recordedAt());
+        assertThat(segment.newest()).isEqualTo(rows.get(ROWS - 1).recordedAt());
+        assertThat(read).containsExactlyElementsOf(newestFirst(rows));
+    }
+
+    @Test
+    void cursorPagesCoverEveryRowOnce() throws IOException {
+        List<ArchivedHistoryRow> rows = rows();
+        HistorySegment segment = write(rows);
+
+        List<ArchivedHistoryRow> paged = new ArrayList<>();
+        HistoryCursor cursor = HistoryCursor.FIRST;
+        while (true) {
+            List<ArchivedHistoryRow> page = new ArrayList<>();
+            segment.collectNewestFirst(cursor, null, null, null, 333, page);
+            if (page.isEmpty()) {
+                break;
+            }
+            paged.addAll(page);
+            ArchivedHistoryRow last = page.get(page.size() - 1);
+            cursor = new HistoryCursor(last.recordedAt().atOffset(ZoneOffset.UTC), last.id());
+        }
+
+        assertThat(paged).containsExactlyElementsOf(newestFirst(rows));
+    }
+
+    @Test
+    void filtersByUserAndHalfOpenPeriod() throws IOException {
+        List<ArchivedHistoryRow> rows = rows();
+        HistorySegment segment = write(rows);
+        Instant from = rows.get(1000).recordedAt();
+        Instant before = rows.get(6000).recordedAt();
+
+        List<ArchivedHistoryRow> read = new ArrayList<>();
+        segment.collectNewestFirst(HistoryCursor.FIRST, from, before, 1L, Integer.MAX_VALUE, read);
+
+        assertThat(read).isNotEmpty().containsExactlyElementsOf(newestFirst(rows.stream()
+            .filter(row -> row.userId() == 1L)
+            .filter(row -> !row.recordedAt().isBefore(from) && row.recordedAt().isBefore(before))
+            .toList()));
+        // As duas bordas são do usuário 1: a inicial entra, a final não.
+        assertThat(read).contains(rows.get(1000)).doesNotContain(rows.get(6000));
+    }
+
+    @Test
+    void rejectsRowsOutOfOrder() throws IOException {
+        try (HistorySegmentWriter writer = new HistorySegmentWriter(directory.resolve("fora-de-ordem.seg"))) {
+            writer.add(5, 1, 1, "ENTRADA", "AUTORIZADO", "C1", null, BASE);
+
+            assertThatThrownBy(() -> writer.add(4, 1, 1, "ENTRADA", "AUTORIZADO", "C1", null, BASE))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    // Pares de linhas com o mesmo instante: a ordem entre elas vem do id.
+    private static List<ArchivedHistoryRow> rows() {
+        List<ArchivedHistoryRow> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            long user = 1 + i % 5;
+            rows.add(new ArchivedHistoryRow(1_000 + i, user, 10 + i % 3, i % 2 == 0 ? "ENTRADA" : "SAIDA",
+                i % 7 == 0 ? "NEGADO" : "AUTORIZADO", "C" + user, i % 4 == 0 ? null : "nota " + i,
+                BASE.plusSeconds(i / 2 * 10L)));
+        }
+        return rows;
+    }
+
+    private HistorySegment write(List<ArchivedHistoryRow> rows) throws IOException {
+        Path target = directory.resolve("history-202304.seg");
+        try (HistorySegmentWriter writer = new HistorySegmentWriter(target)) {
+            for (ArchivedHistoryRow row : rows) {
+                writer.add(row.id(), row.userId(), row.areaId(), row.eventType(), row.result(), row.cardIdentifier(),
+                    row.notes(), row.recordedAt());
+            }
+            writer.finish();
+        }
+        return HistorySegment.open(target);
+    }
+
+    private static List<ArchivedHistoryRow> newestFirst(List<ArchivedHistoryRow> rows) {
+        return rows.stream()
+            .sorted(Comparator.comparing(ArchivedHistoryRow::recordedAt)
+                .thenComparingLong(ArchivedHistoryRow::id)
+                .reversed())
+            .toList();
+    }
+}
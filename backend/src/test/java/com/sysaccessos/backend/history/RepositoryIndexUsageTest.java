@@ -0,0 +1,132 @@
+package com.sysaccessos.backend.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sysaccessos.backend.permission.UserPermissionRepository;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Roda {@code EXPLAIN} sobre o SQL que o Hibernate gera para cada consulta dos repositórios
+ * de histórico e permissões e confere o índice escolhido pelo H2 (modo MySQL, migrações do Flyway).
+ * <p>
+ * O H2 mantém os índices que cria para as chaves estrangeiras da V1 mesmo depois da V2; o MySQL
+ * descarta o índice implícito da chave estrangeira quando outro índice começa pela mesma coluna.
+ * Por isso, onde só o prefixo da coluna importa, o índice da chave estrangeira também é aceito.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RepositoryIndexUsageTest {
+
+    private static final Pattern TABLE_ACCESS = Pattern.compile(
+        "\"public\"\\.\"(\\w+)\"\\s+\"\\w+\"\\s+/\\* public\\.(\\w+)");
+
+    private static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+    @Autowired
+    private AccessHistoryRepository historyRepository;
+
+    @Autowired
+    private UserPermissionRepository permissionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearStatements() {
+        STATEMENTS.clear();
+    }
+
+    @Test
+    void historyPageUsesRecordedAtIndex() {
+        historyRepository.findPage(OffsetDateTime.now(), Long.MAX_VALUE, PageRequest.ofSize(10));
+        assertUsesIndex("access_history", "idx_access_history_recorded_at");
+    }
+
+    @Test
+    void historyPageBetweenUsesRecordedAtIndex() {
+        OffsetDateTime now = OffsetDateTime.now();
+        historyRepository.findPageBetween(now.minusDays(1), now, now, Long.MAX_VALUE, PageRequest.ofSize(10));
+        assertUsesIndex("access_history", "idx_access_history_recorded_at");
+    }
+
+    @Test
+    void historyPageByUserUsesUserIndex() {
+        historyRepository.findPageByUser(1L, OffsetDateTime.now(), Long.MAX_VALUE, PageRequest.ofSize(10));
+        assertUsesIndex("access_history", "idx_access_history_user_recorded_at", "fk_access_history_user_index");
+    }
+
+    @Test
+    void historySearchByCardUsesCardIndex() {
+        historyRepository.findBy(Specification.allOf(
+                AccessHistorySpecifications.cardIdentifier("123"),
+                AccessHistorySpecifications.after(new HistoryCursor(OffsetDateTime.now(), Long.MAX_VALUE))),
+            query -> query.sortBy(Sort.by(Sort.Order.desc("recordedAt"), Sort.Order.desc("id"))).limit(10).all());
+        assertUsesIndex("access_history", "idx_access_history_card_recorded_at");
+    }
+
+    @Test
+    void permissionsByUserUseUserIndex() {
+        permissionRepository.findDtosByUserId(1L);
+        assertUsesIndex("user_permissions", "idx_user_permissions_user_area_status", "fk_user_permissions_user_index");
+    }
+
+    @Test
+    void duplicatePermissionCheckUsesUserAreaStatusIndex() {
+        permissionRepository.existsByUserIdAndAreaIdAndStatus(1L, 1L, "ATIVA");
+        assertUsesIndex("user_permissions", "idx_user_permissions_user_area_status");
+    }
+
+    @Test
+    void permissionByIdUsesPrimaryKey() {
+        permissionRepository.findDtoById(1L);
+        assertUsesIndex("user_permissions", "primary_key");
+    }
+
+    private void assertUsesIndex(String table, String... acceptedIndexes) {
+        assertThat(STATEMENTS).isNotEmpty();
+        String sql = STATEMENTS.get(STATEMENTS.size() - 1);
+        Object[] nulls = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, nulls).toLowerCase();
+        Matcher access = TABLE_ACCESS.matcher(plan);
+        String index = null;
+        while (access.find()) {
+            if (access.group(1).equals(table)) {
+                index = access.group(2);
+            }
+        }
+        assertThat(index).as(plan).isNotNull();
+        String chosen = index;
+        assertThat(acceptedIndexes).as(plan).anyMatch(chosen::startsWith);
+    }
+
+    @TestConfiguration
+    static class RecordingInspectorConfig {
+
+        @Bean
+        HibernatePropertiesCustomizer recordingStatementInspector() {
+            return properties -> properties.put("hibernate.session_factory.statement_inspector",
+                (StatementInspector) sql -> {
+                    STATEMENTS.add(sql);
+                    return sql;
+                });
+        }
+    }
+}
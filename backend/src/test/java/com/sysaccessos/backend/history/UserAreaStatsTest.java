@@ -0,0 +1,131 @@
+package com.sysaccessos.backend.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.sysaccessos.backend.area.AccessAreaService;
+import com.sysaccessos.backend.area.dto.AccessAreaRequest;
+import com.sysaccessos.backend.auth.dto.RegisterRequest;
+import com.sysaccessos.backend.user.User;
+import com.sysaccessos.backend.user.UserManagementService;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Pontuação com decaimento mantida na gravação do histórico (meia-vida padrão de 30 dias): a
+ * mesma soma decaída até o acesso mais recente, qualquer que seja a divisão e a ordem dos lotes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserAreaStatsTest {
+
+    private static final Instant FIRST = Instant.parse("2030-01-01T08:00:00Z");
+    private static final Instant ONE_HALF_LIFE_LATER = FIRST.plus(Duration.ofDays(30));
+
+    @Autowired
+    private AccessHistoryWriter historyWriter;
+
+    @Autowired
+    private UserAreaStats userAreaStats;
+
+    @Autowired
+    private AccessAreaService areaService;
+
+    @Autowired
+    private UserManagementService userManagementService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeAll
+    void createUser() {
+        RegisterRequest request = new RegisterRequest();
+        request.setName("Usuário de decaimento");
+        request.setEmail("decaimento@sysaccessos.local");
+        request.setRegistrationCode("9500000");
+        request.setRole("ALUNO");
+        request.setCardIdentifier("9400000");
+        request.setPassword("senha123");
+        user = userManagementService.createUser(request);
+    }
+
+    @Test
+    void separateBatchesDecayTheStoredScore() {
+        Long areaId = area("Sala de decaimento em lotes");
+        historyWriter.writeBatch(List.of(event(areaId, FIRST)));
+        historyWriter.writeBatch(List.of(event(areaId, ONE_HALF_LIFE_LATER)));
+
+        assertStats(areaId, 2, ONE_HALF_LIFE_LATER, 1.5);
+    }
+
+    @Test
+    void eventsOfOneBatchAreCombinedBeforeTheUpsert() {
+        Long areaId = area("Sala de decaimento no mesmo lote");
+        historyWriter.writeBatch(List.of(event(areaId, ONE_HALF_LIFE_LATER), event(areaId, FIRST)));
+
+        assertStats(areaId, 2, ONE_HALF_LIFE_LATER, 1.5);
+    }
+
+    @Test
+    void lateEventDecaysItselfAndKeepsTheLastAccess() {
+        Long areaId = area("Sala de decaimento com atraso");
+        historyWriter.writeBatch(List.of(event(areaId, ONE_HALF_LIFE_LATER)));
+        historyWriter.writeBatch(List.of(event(areaId, FIRST)));
+
+        assertStats(areaId, 2, ONE_HALF_LIFE_LATER, 1.5);
+    }
+
+    @Test
+    void scoreDecaysUntilTheQuery() {
+        Long areaId = area("Sala de decaimento na consulta");
+        historyWriter.writeBatch(List.of(event(areaId, FIRST), event(areaId, ONE_HALF_LIFE_LATER)));
+
+        AreaUsage usage = userAreaStats.areas(user.getId()).stream()
+            .filter(area -> area.areaId().equals(areaId))
+            .findFirst()
+            .orElseThrow();
+
+        assertThat(usage.decayScoreAt(ONE_HALF_LIFE_LATER.plus(Duration.ofDays(60)), userAreaStats.halfLife()))
+            .isCloseTo(0.375, within(1e-9));
+        // Consultas anteriores ao último acesso não aumentam a pontuação.
+        assertThat(usage.decayScoreAt(FIRST, userAreaStats.halfLife())).isCloseTo(1.5, within(1e-9));
+    }
+
+    private void assertStats(Long areaId, long count, Instant lastAccess, double score) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+            "SELECT access_count, last_access_at, decay_score FROM user_area_stats WHERE user_id = ? AND area_id = ?",
+            user.getId(), areaId);
+        assertThat(((Number) row.get("access_count")).longValue()).isEqualTo(count);
+        assertThat(((Timestamp) row.get("last_access_at")).toInstant()).isEqualTo(lastAccess);
+        assertThat(((Number) row.get("decay_score")).doubleValue()).isCloseTo(score, within(1e-9));
+    }
+
+    private Long area(String name) {
+        AccessAreaRequest request = new AccessAreaRequest();
+        request.setName(name);
+        request.setDescription("Sala para pontuação com decaimento");
+        request.setLocation("Bloco D");
+        request.setSecurityLevel("BAIXO");
+        return areaService.create(request).getId();
+    }
+
+    private AccessHistoryEvent event(Long areaId, Instant recordedAt) {
+        return AccessHistoryEvent.of(Clock.fixed(recordedAt, ZoneOffset.UTC), user.getId(), user.getName(), areaId,
+            null, "ENTRADA", "AUTORIZADO", user.getCardIdentifier(), null);
+    }
+}
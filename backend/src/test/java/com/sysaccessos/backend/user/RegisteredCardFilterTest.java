@@ -0,0 +1,90 @@
+package com.sysaccessos.backend.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class RegisteredCardFilterTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RegisteredCardFilter filter = new RegisteredCardFilter(userRepository, 100, 0.01, 10);
+
+    @Test
+    void cardRegisteredWhileReloadingIsNotLost() {
+        // O cadastro acontece entre a cópia dos cartões pendentes e a troca do filtro.
+        when(userRepository.findAllCardIdentifiers()).thenReturn(List.of("1111")).thenAnswer(invocation -> {
+            filter.register("4242");
+            return List.of("1111");
+        });
+        filter.reload();
+
+        filter.reload();
+
+        assertThat(filter.mightBeRegistered("4242")).isTrue();
+        assertThat(filter.mightBeRegistered("1111")).isTrue();
+    }
+
+    @Test
+    void periodicReloadPicksUpCardsRegisteredElsewhere() {
+        List<String> stored = new ArrayList<>(List.of("1111"));
+        when(userRepository.findAllCardIdentifiers()).thenAnswer(invocation -> List.copyOf(stored));
+        filter.reload();
+        assertThat(filter.mightBeRegistered("5555")).isFalse();
+
+        stored.add("5555");
+        filter.reloadPeriodically();
+
+        assertThat(filter.mightBeRegistered("5555")).isTrue();
+    }
+
+    @Test
+    void cacheConfirmsFilterMissesInTheDatabase() {
+        when(userRepository.findAllCardIdentifiers()).thenReturn(List.of());
+        filter.reload();
+        User user = new User();
+        user.setId(7L);
+        user.setName("Cadastrado em outra instância");
+        user.setRole(UserRole.ALUNO);
+        user.setCardIdentifier("7777");
+        when(userRepository.findByCardIdentifier("7777")).thenReturn(Optional.of(user));
+        CardHolderCache cache = new CardHolderCache(userRepository, filter, 100, 100, Duration.ofMinutes(1), true);
+
+        assertThat(cache.resolve("7777")).contains(new CardHolder(7L, user.getName(), UserRole.ALUNO));
+        assertThat(filter.mightBeRegistered("7777")).isTrue();
+    }
+
+    @Test
+    void cardRegisteredThroughTheServiceIsAcceptedWithVerificationOff() {
+        when(userRepository.findAllCardIdentifiers()).thenReturn(List.of());
+        filter.reload();
+        User user = new User();
+        user.setId(8L);
+        user.setName("Cadastrado agora");
+        user.setRole(UserRole.ALUNO);
+        user.setCardIdentifier("8888");
+        when(userRepository.findByCardIdentifier("8888")).thenReturn(Optional.of(user));
+        CardHolderCache cache = new CardHolderCache(userRepository, filter, 100, 100, Duration.ofMinutes(1), false);
+
+        cache.evict("8888");
+
+        assertThat(cache.resolve("8888")).contains(new CardHolder(8L, user.getName(), UserRole.ALUNO));
+    }
+
+    @Test
+    void filterMissesAreRejectedWithoutTheDatabaseWhenVerificationIsOff() {
+        when(userRepository.findAllCardIdentifiers()).thenReturn(List.of());
+        filter.reload();
+        CardHolderCache cache = new CardHolderCache(userRepository, filter, 100, 100, Duration.ofMinutes(1), false);
+
+        assertThat(cache.resolve("7777")).isEmpty();
+        verify(userRepository, never()).findByCardIdentifier("7777");
+    }
+}
@@ -1,5 +1,6 @@
 import { useEffect, useState } from 'react';
 import { createArea, deleteArea, fetchAreas, updateArea } from '../services/areaService.js';
+import { subscribeLiveEvents } from '../services/liveService.js';
 
 const initialState = {
   name: '',
@@ -80,6 +81,30 @@ function AreaManager() {
     loadAreas();
   }, []);
 
+  useEffect(
+    () =>
+      subscribeLiveEvents({
+        occupancy: (movement) => {
+          setAreas((current) =>
+            current.map((area) =>
+              area.id === movement.areaId
+                ? {
+                    ...area,
+                    status: movement.status,
+                    inUse: movement.inUse,
+                    occupantName: movement.occupantName,
+                    occupantCardIdentifier: movement.occupantCardIdentifier,
+                    lastMovementAt: movement.lastMovementAt,
+                    usageDeadline: movement.usageDeadline
+                  }
+                : area
+            )
+          );
+        }
+      }),
+    []
+  );
+
   const validateInline = (draft) => {
     const errors = {};
     if (!draft.name.trim()) {
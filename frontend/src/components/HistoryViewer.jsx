@@ -1,16 +1,25 @@
 import { useEffect, useState } from 'react';
 import { fetchHistory } from '../services/historyService.js';
+import { subscribeLiveEvents } from '../services/liveService.js';
+
+const LIVE_LIMIT = 200;
 
 function HistoryViewer() {
   const [history, setHistory] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [listLoading, setListLoading] = useState(false);
   const [feedback, setFeedback] = useState(null);
+  const [liveEvents, setLiveEvents] = useState([]);
 
-  const loadHistory = async () => {
+  const loadHistory = async (cursor = null) => {
     setListLoading(true);
     try {
-      const data = await fetchHistory();
-      setHistory(data);
+      const data = await fetchHistory(cursor ? { cursor } : {});
+      setHistory((current) => (cursor ? [...current, ...data.items] : data.items));
+      if (!cursor) {
+        setLiveEvents([]);
+      }
+      setNextCursor(data.nextCursor);
     } catch (error) {
       setFeedback({
         type: 'error',
@@ -25,6 +34,17 @@ function HistoryViewer() {
     loadHistory();
   }, []);
 
+  // Eventos ao vivo chegam sem id; a chave local evita colisão com os registros carregados.
+  useEffect(() => {
+    let sequence = 0;
+    return subscribeLiveEvents({
+      access: (event) => {
+        sequence += 1;
+        setLiveEvents((current) => [{ ...event, liveKey: `live-${sequence}` }, ...current].slice(0, LIVE_LIMIT));
+      }
+    });
+  }, []);
+
   return (
     <section className="crud-section">
       <div className="crud-header">
@@ -41,11 +61,11 @@ function HistoryViewer() {
       <div className="card crud-table">
         <div className="crud-table-header">
           <h3>Eventos registrados</h3>
-          <button type="button" className="ghost" onClick={loadHistory} disabled={listLoading}>
+          <button type="button" className="ghost" onClick={() => loadHistory()} disabled={listLoading}>
             {listLoading ? 'Atualizando...' : 'Atualizar lista'}
           </button>
         </div>
-        {history.length === 0 ? (
+        {history.length === 0 && liveEvents.length === 0 ? (
           <p className="empty">Nenhum evento registrado.</p>
         ) : (
           <div className="table-wrapper">
@@ -61,8 +81,8 @@ function HistoryViewer() {
                 </tr>
               </thead>
               <tbody>
-                {history.map((item) => (
-                  <tr key={item.id}>
+                {[...liveEvents, ...history].map((item) => (
+                  <tr key={item.liveKey ?? item.id}>
                     <td>{new Date(item.recordedAt).toLocaleString()}</td>
                     <td>
                       {item.userName}
@@ -75,6 +95,11 @@ function HistoryViewer() {
                 ))}
               </tbody>
             </table>
+            {nextCursor && (
+              <button type="button" className="ghost" onClick={() => loadHistory(nextCursor)} disabled={listLoading}>
+                {listLoading ? 'Carregando...' : 'Carregar mais'}
+              </button>
+            )}
           </div>
         )}
       </div>
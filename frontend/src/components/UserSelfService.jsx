@@ -26,7 +26,7 @@ function UserSelfService({ user }) {
         ]);
         setPermissions(permissionsData);
         setAuthorizedAreas(areasData);
-        setHistory(historyData);
+        setHistory(historyData.items);
       } catch (err) {
         setError(err.response?.data?.message || 'Não foi possível carregar seus dados.');
       } finally {
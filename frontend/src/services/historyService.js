@@ -5,7 +5,7 @@ export async function fetchHistory(params = {}) {
   return data;
 }
 
-export async function fetchHistoryByUser(userId) {
-  const { data } = await api.get(`/history/user/${userId}`);
+export async function fetchHistoryByUser(userId, params = {}) {
+  const { data } = await api.get(`/history/user/${userId}`, { params });
   return data;
 }
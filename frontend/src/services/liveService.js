@@ -0,0 +1,36 @@
+import api from './api.js';
+
+// Uma única conexão SSE compartilhada pelas telas abertas: aberta na primeira assinatura e
+// encerrada quando a última é cancelada.
+let source = null;
+const subscribers = new Set();
+const listenedEvents = new Set();
+
+function dispatch(name, event) {
+  const payload = JSON.parse(event.data);
+  subscribers.forEach((handlers) => handlers[name]?.(payload));
+}
+
+function listen(name) {
+  if (!listenedEvents.has(name)) {
+    listenedEvents.add(name);
+    source.addEventListener(name, (event) => dispatch(name, event));
+  }
+}
+
+// Assina o fluxo SSE do backend; devolve a função que cancela a assinatura.
+export function subscribeLiveEvents(handlers = {}) {
+  if (!source) {
+    source = new EventSource(`${api.defaults.baseURL}/live/events`);
+  }
+  subscribers.add(handlers);
+  Object.keys(handlers).forEach(listen);
+  return () => {
+    subscribers.delete(handlers);
+    if (subscribers.size === 0 && source) {
+      source.close();
+      source = null;
+      listenedEvents.clear();
+    }
+  };
+}